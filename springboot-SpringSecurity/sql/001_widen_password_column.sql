@@ -0,0 +1,3 @@
+-- 密码哈希改为带编码前缀的格式（如 {bcrypt}$2a$10$...，68 个字符），
+-- 登录成功后会自动重新哈希并写回，需要先确保 password 列足够长。
+ALTER TABLE sys_user MODIFY COLUMN password VARCHAR(128) NOT NULL COMMENT '密码';
@@ -0,0 +1,20 @@
+-- 登录时 UserMapper.selectWithRolesByUserName 一次查询用户及其启用的角色ID所需的索引，
+-- 权限由内存中的角色权限快照合并，登录时不再连接菜单表。每一步连接都只走索引：
+--   sys_user      按 user_name 定位用户
+--   sys_user_role (user_id, role_id)  由用户找到角色
+--   sys_role      (id, status)        过滤停用的角色
+-- 以下两个索引服务于构建角色权限快照的 MenuMapper.selectRolePermissions（启动和权限变更时全量查询），
+-- 按 (role_id, menu_id) 顺序读取关联表，菜单表只走覆盖索引：
+--   sys_role_menu (role_id, menu_id)
+--   sys_menu      (id, status, perms)
+-- 如果表上已有等价的主键或索引（例如关联表以 (user_id, role_id) 为主键），可跳过对应语句。
+
+CREATE UNIQUE INDEX uk_sys_user_user_name ON sys_user (user_name);
+
+CREATE INDEX idx_sys_user_role_user_role ON sys_user_role (user_id, role_id);
+
+CREATE INDEX idx_sys_role_id_status ON sys_role (id, status);
+
+CREATE INDEX idx_sys_role_menu_role_menu ON sys_role_menu (role_id, menu_id);
+
+CREATE INDEX idx_sys_menu_id_status_perms ON sys_menu (id, status, perms);
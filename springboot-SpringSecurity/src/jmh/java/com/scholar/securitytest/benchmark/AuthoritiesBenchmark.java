@@ -0,0 +1,62 @@
+package com.scholar.securitytest.benchmark;
+
+import com.scholar.securitytest.domain.LoginUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * LoginUser.getAuthorities：每个请求都是刚从 Redis 反序列化出的新对象，权限集合需要重新获取
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthoritiesBenchmark {
+
+    private LoginUser template;
+
+    @Setup
+    public void setup() {
+        template = BenchmarkData.loginUser();
+    }
+
+    /**
+     * 原来的实现：每次用 stream 创建新的 SimpleGrantedAuthority 列表
+     */
+    @Benchmark
+    public List<SimpleGrantedAuthority> streamAuthorities() {
+        return template.getPermissions().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 当前实现：从权限注册表获取共享的不可变集合
+     */
+    @Benchmark
+    public Collection<? extends GrantedAuthority> registryAuthorities() {
+        return new LoginUser(template.getUser(), template.getPermissions()).getAuthorities();
+    }
+
+    @Benchmark
+    public boolean hasPermission() {
+        return new LoginUser(template.getUser(), template.getPermissions()).hasPermission("post:remove");
+    }
+}
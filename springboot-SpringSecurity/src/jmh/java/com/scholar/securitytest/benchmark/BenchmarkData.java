@@ -0,0 +1,37 @@
+package com.scholar.securitytest.benchmark;
+
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试共用的样例数据
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 与数据库中普通用户规模相当的登录用户：完整的 sys_user 行和 20 个权限
+     */
+    static LoginUser loginUser() {
+        User user = new User(1L, "sg", "三更", "$2a$10$Jnq31rRkNV3RNzXe0REsEOSKaYK8UgVZZqlNlNXqn.JeVcj2NdeZy",
+                "0", "0", "sg@example.com", "13800000000", "0", "https://example.com/avatar.png", 1L,
+                LocalDateTime.of(2024, 5, 7, 12, 30, 15), 1L, LocalDateTime.of(2024, 5, 8, 9, 0, 0), 0);
+        return new LoginUser(user, permissions());
+    }
+
+    static List<String> permissions() {
+        List<String> permissions = new ArrayList<>();
+        for (String module : new String[]{"user", "role", "menu", "dept", "post"}) {
+            for (String action : new String[]{"view", "add", "edit", "remove"}) {
+                permissions.add(module + ":" + action);
+            }
+        }
+        return permissions;
+    }
+}
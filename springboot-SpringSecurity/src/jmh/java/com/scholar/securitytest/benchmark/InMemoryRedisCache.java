@@ -0,0 +1,53 @@
+package com.scholar.securitytest.benchmark;
+
+import com.scholar.securitytest.utils.RedisCache;
+import com.scholar.securitytest.utils.SessionRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存版 RedisCache，用于在没有 Redis 的情况下测试认证链路。
+ * 值以序列化后的字节保存，每次读取都会反序列化，与真实 Redis 的解码开销一致（不含网络往返）。
+ */
+class InMemoryRedisCache extends RedisCache {
+
+    private final SessionRedisSerializer serializer = new SessionRedisSerializer(true);
+
+    private final Map<String, byte[]> store = new ConcurrentHashMap<>();
+
+    @Override
+    public <T> void setCacheObject(String key, T value) {
+        store.put(key, serializer.serialize(value));
+    }
+
+    @Override
+    public <T> void setCacheObject(String key, T value, Integer timeout, TimeUnit timeUnit) {
+        setCacheObject(key, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getCacheObject(String key) {
+        byte[] bytes = store.get(key);
+        return bytes == null ? null : (T) serializer.deserialize(bytes);
+    }
+
+    @Override
+    public <T> List<T> getMultiCacheObject(Collection<String> keys) {
+        List<T> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(getCacheObject(key));
+        }
+        return values;
+    }
+
+    @Override
+    public boolean deleteObject(String key) {
+        return store.remove(key) != null;
+    }
+}
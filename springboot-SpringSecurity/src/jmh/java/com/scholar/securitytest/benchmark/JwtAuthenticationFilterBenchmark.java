@@ -0,0 +1,131 @@
+package com.scholar.securitytest.benchmark;
+
+import com.scholar.securitytest.config.SessionTimeoutProperties;
+import com.scholar.securitytest.domain.RolePermission;
+import com.scholar.securitytest.mapper.MenuMapper;
+import com.scholar.securitytest.service.JwtService;
+import com.scholar.securitytest.service.impl.JwtServiceImpl;
+import com.scholar.securitytest.service.impl.RolePermissionServiceImpl;
+import com.scholar.securitytest.utils.AuthTracer;
+import com.scholar.securitytest.utils.JwtAuthenticationTokenFilter;
+import com.scholar.securitytest.utils.JwtTokenCache;
+import com.scholar.securitytest.utils.LoginUserCache;
+import com.scholar.securitytest.utils.RedisMultiGetBatcher;
+import com.scholar.securitytest.utils.StatelessAuthenticator;
+import com.scholar.securitytest.utils.TokenRevocationList;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次完整的 JwtAuthenticationTokenFilter 处理：解析 token、获取 LoginUser、写入 SecurityContextHolder。
+ * 使用 Mock 的 Servlet 对象和内存版 RedisCache，不包含 Redis 网络往返。
+ * warm 表示本地缓存（已验证 Token、LoginUser）是否启用：启用时测的是常态命中路径，
+ * 关闭时每次都完整验签并反序列化会话。stateless 表示由 token 中的紧凑权限声明认证，不读取会话。
+ * sampleRate 为采样追踪的比例，默认只测关闭时的开销，可通过 -p sampleRate=0,1 对比全部采样的开销。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean warm;
+
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    @Param({"0"})
+    public double sampleRate;
+
+    private JwtAuthenticationTokenFilter filter;
+
+    private String token;
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    @Setup
+    public void setup() {
+        long cacheSize = warm ? 10000 : 0;
+        JwtService jwtService = new JwtServiceImpl("sangeng", Duration.ofHours(1), "sg");
+        JwtTokenCache jwtTokenCache = new JwtTokenCache(cacheSize);
+        ReflectionTestUtils.setField(jwtTokenCache, "jwtService", jwtService);
+
+        InMemoryRedisCache redisCache = new InMemoryRedisCache();
+        LoginUserCache loginUserCache = new LoginUserCache(cacheSize, Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(loginUserCache, "redisCache", redisCache);
+        RedisMultiGetBatcher batcher = new RedisMultiGetBatcher(false, Duration.ZERO, 1);
+        ReflectionTestUtils.setField(batcher, "redisCache", redisCache);
+        ReflectionTestUtils.setField(loginUserCache, "redisMultiGetBatcher", batcher);
+        ReflectionTestUtils.setField(loginUserCache, "sessionTimeoutProperties", new SessionTimeoutProperties());
+        redisCache.setCacheObject(LoginUserCache.KEY_PREFIX + "1", BenchmarkData.loginUser());
+
+        // 每个权限对应一个菜单，菜单ID从 2001 开始
+        List<RolePermission> rows = new ArrayList<>();
+        List<String> permissions = BenchmarkData.permissions();
+        for (int i = 0; i < permissions.size(); i++) {
+            RolePermission row = new RolePermission();
+            row.setRoleId(1L);
+            row.setMenuId(2001L + i);
+            row.setPerms(permissions.get(i));
+            rows.add(row);
+        }
+        MenuMapper menuMapper = Mockito.mock(MenuMapper.class);
+        Mockito.when(menuMapper.selectRolePermissions()).thenReturn(rows);
+        RolePermissionServiceImpl rolePermissionService = new RolePermissionServiceImpl();
+        ReflectionTestUtils.setField(rolePermissionService, "menuMapper", menuMapper);
+        rolePermissionService.rebuild();
+
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(stateless, Duration.ofHours(1), 1000);
+        StatelessAuthenticator statelessAuthenticator = new StatelessAuthenticator(stateless);
+        ReflectionTestUtils.setField(statelessAuthenticator, "tokenRevocationList", tokenRevocationList);
+        ReflectionTestUtils.setField(statelessAuthenticator, "rolePermissionService", rolePermissionService);
+
+        filter = new JwtAuthenticationTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtTokenCache", jwtTokenCache);
+        ReflectionTestUtils.setField(filter, "loginUserCache", loginUserCache);
+        ReflectionTestUtils.setField(filter, "rolePermissionService", rolePermissionService);
+        ReflectionTestUtils.setField(filter, "statelessAuthenticator", statelessAuthenticator);
+        AuthTracer authTracer = new AuthTracer(sampleRate, 100);
+        ReflectionTestUtils.setField(filter, "authTracer", authTracer);
+        ReflectionTestUtils.setField(jwtTokenCache, "authTracer", authTracer);
+        ReflectionTestUtils.setField(loginUserCache, "authTracer", authTracer);
+        token = jwtService.createJWT("1", statelessAuthenticator.claimsOf(BenchmarkData.loginUser()));
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        // OncePerRequestFilter 会在请求上做标记，每次都需要新的请求对象
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sayHello");
+        request.addHeader("token", token);
+        filter.doFilter(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
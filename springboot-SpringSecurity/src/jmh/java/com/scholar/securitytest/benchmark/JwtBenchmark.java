@@ -0,0 +1,62 @@
+package com.scholar.securitytest.benchmark;
+
+import com.scholar.securitytest.service.JwtService;
+import com.scholar.securitytest.service.impl.JwtServiceImpl;
+import com.scholar.securitytest.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil（每次重新生成密钥和 jjwt 解析器）与 JwtService（密钥只加载一次、线程复用 Mac）的对比
+ */
+@SuppressWarnings("deprecation")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtService jwtService;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtServiceImpl(JwtUtil.JWT_KEY, Duration.ofHours(1), "sg");
+        token = jwtService.createJWT("1");
+    }
+
+    @Benchmark
+    public String createWithJwtUtil() {
+        return JwtUtil.createJWT("1");
+    }
+
+    @Benchmark
+    public String createWithJwtService() {
+        return jwtService.createJWT("1");
+    }
+
+    @Benchmark
+    public Claims parseWithJwtUtil() throws Exception {
+        return JwtUtil.parseJWT(token);
+    }
+
+    @Benchmark
+    public Claims parseWithJwtService() throws Exception {
+        return jwtService.parseJWT(token);
+    }
+}
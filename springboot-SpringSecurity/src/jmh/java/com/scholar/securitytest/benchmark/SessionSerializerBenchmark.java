@@ -0,0 +1,66 @@
+package com.scholar.securitytest.benchmark;
+
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.utils.FastJsonRedisSerializer;
+import com.scholar.securitytest.utils.SessionRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoginUser 会话的序列化和反序列化：FastJSON 与二进制编解码器对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionSerializerBenchmark {
+
+    private final FastJsonRedisSerializer<Object> fastJson = new FastJsonRedisSerializer<>(Object.class);
+
+    private final SessionRedisSerializer binary = new SessionRedisSerializer(true);
+
+    private LoginUser loginUser;
+
+    private byte[] jsonBytes;
+
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setup() {
+        loginUser = BenchmarkData.loginUser();
+        jsonBytes = fastJson.serialize(loginUser);
+        binaryBytes = binary.serialize(loginUser);
+    }
+
+    @Benchmark
+    public byte[] serializeFastJson() {
+        return fastJson.serialize(loginUser);
+    }
+
+    @Benchmark
+    public Object deserializeFastJson() {
+        return fastJson.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binary.serialize(loginUser);
+    }
+
+    @Benchmark
+    public Object deserializeBinary() {
+        return binary.deserialize(binaryBytes);
+    }
+}
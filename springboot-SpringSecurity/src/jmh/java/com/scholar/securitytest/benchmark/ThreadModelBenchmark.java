@@ -0,0 +1,100 @@
+package com.scholar.securitytest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求线程模型的并发上限：一批并发请求各自阻塞等待 1ms（模拟一次 Redis/MySQL 往返），测量整批完成的耗时
+ * platform 对应 Tomcat 默认的 200 个平台线程，virtual 对应 spring.threads.virtual.enabled 下每个请求一个虚拟线程。
+ * pinned 模式在 synchronized 块内等待，虚拟线程会钉住载体线程，用来说明为什么加载缓存时不能在锁内做 I/O。
+ * 这是线程模型的示意性测量，请求只是 sleep，不经过应用的认证过滤器和登录流程，
+ * 结果只说明各线程模型在阻塞等待下的差异，不代表应用本身的吞吐或延迟。
+ * virtual-threads 配置下应用本身的压测（/user/login 和需要认证的接口）需要真实的 MySQL 和 Redis，
+ * 不在这里做，应在部署环境中用 HTTP 压测工具进行。
+ * <p>
+ * 需要 JDK 21：JAVA_HOME=... mvn -P benchmark,java21 test-compile exec:exec -Djmh.args="ThreadModelBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadModelBenchmark {
+
+    // Tomcat 默认的 server.tomcat.threads.max
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    @Param({"blocking", "pinned"})
+    public String mode;
+
+    @Param({"200", "2000"})
+    public int concurrency;
+
+    private ExecutorService executorService;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        if ("virtual".equals(executor)) {
+            // 通过反射创建，基准测试代码在 Java 17 下也能编译
+            executorService = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } else {
+            executorService = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Benchmark
+    public void requests() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        boolean pinned = "pinned".equals(mode);
+        for (int i = 0; i < concurrency; i++) {
+            Object monitor = new Object();
+            executorService.execute(() -> {
+                try {
+                    if (pinned) {
+                        synchronized (monitor) {
+                            awaitResponse();
+                        }
+                    } else {
+                        awaitResponse();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private static void awaitResponse() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
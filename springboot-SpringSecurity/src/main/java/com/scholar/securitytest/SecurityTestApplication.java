@@ -4,9 +4,11 @@ import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @MapperScan("com.scholar.securitytest.mapper")//扫描mapper
+@EnableScheduling//开启定时任务，用于批量刷新会话有效期
 public class SecurityTestApplication {
 
     public static void main(String[] args) {
@@ -1,10 +1,12 @@
 package com.scholar.securitytest.common;
 
-import com.alibaba.fastjson.JSON;
-import com.scholar.securitytest.utils.WebUtils;
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.ResponseWriter;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.web.access.AccessDeniedHandler;
@@ -13,15 +15,22 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AccessDeniedHandlerImpl implements AccessDeniedHandler {
 
+    // 统一的响应对象，启动时编码一次
+    private static final ResponseWriter.Payload FORBIDDEN = ResponseWriter.payload(
+            new ResponseResult(HttpStatus.FORBIDDEN.value(), "权限不足"));
+
+    @Autowired
+    private AuthMetrics authMetrics;  // 统计返回次数
+
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response,
                        AccessDeniedException accessDeniedException) throws IOException, ServletException {
 
-        // 创建统一的响应对象
-        ResponseResult result = new ResponseResult(HttpStatus.FORBIDDEN.value(), "权限不足");
-        String json = JSON.toJSONString(result);  // 将响应对象转为JSON格式
-        WebUtils.renderString(response, json);  // 返回响应
+        authMetrics.accessDenied();
+
+        ResponseWriter.write(response, FORBIDDEN);  // 返回预先编码的响应体
     }
 }
\ No newline at end of file
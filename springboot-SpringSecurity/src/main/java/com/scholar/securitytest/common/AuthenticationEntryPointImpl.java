@@ -1,10 +1,12 @@
 package com.scholar.securitytest.common;
 
-import com.alibaba.fastjson.JSON;
-import com.scholar.securitytest.utils.WebUtils;
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.ResponseWriter;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
@@ -13,15 +15,22 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AuthenticationEntryPointImpl implements AuthenticationEntryPoint {
 
+    // 统一的响应对象，启动时编码一次，每次拒绝只写出同一份字节
+    private static final ResponseWriter.Payload UNAUTHORIZED = ResponseWriter.payload(
+            new ResponseResult(HttpStatus.UNAUTHORIZED.value(), "认证失败，请重新登录"));
+
+    @Autowired
+    private AuthMetrics authMetrics;  // 统计返回次数
+
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                          AuthenticationException authException) throws IOException, ServletException {
 
-        // 创建统一的响应对象
-        ResponseResult result = new ResponseResult(HttpStatus.UNAUTHORIZED.value(), "认证失败，请重新登录");
-        String json = JSON.toJSONString(result);  // 将响应对象转为JSON格式
-        WebUtils.renderString(response, json);  // 返回响应
+        authMetrics.unauthenticated();
+
+        ResponseWriter.write(response, UNAUTHORIZED);  // 返回预先编码的响应体
     }
 }
\ No newline at end of file
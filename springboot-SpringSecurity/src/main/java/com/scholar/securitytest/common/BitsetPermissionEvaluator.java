@@ -0,0 +1,35 @@
+package com.scholar.securitytest.common;
+
+import com.scholar.securitytest.utils.PermissionMask;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于权限位图的 PermissionEvaluator
+ * 让 SpEL 中的 {@code hasPermission('user:view', null)} / {@code hasPermission(null, 'user:view')}
+ * 也走位图判断，而不是逐个比较权限字符串。目标对象不参与判断，只看权限标识。
+ */
+public class BitsetPermissionEvaluator implements PermissionEvaluator {
+
+    private final Map<String, PermissionMask> masks = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+        // 兼容 hasPermission('user:view', null) 的写法
+        Object value = permission != null ? permission : targetDomainObject;
+        return value != null && maskOf(value.toString()).matches(authentication);
+    }
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType, Object permission) {
+        return permission != null && maskOf(permission.toString()).matches(authentication);
+    }
+
+    private PermissionMask maskOf(String permission) {
+        return masks.computeIfAbsent(permission, PermissionMask::anyOf);
+    }
+}
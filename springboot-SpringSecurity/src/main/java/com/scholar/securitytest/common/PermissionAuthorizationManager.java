@@ -0,0 +1,48 @@
+package com.scholar.securitytest.common;
+
+import com.scholar.securitytest.utils.PermissionMask;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * 基于权限位图的授权管理器，用于 URL 授权
+ * 用法：{@code .requestMatchers("/admin/**").access(PermissionAuthorizationManager.hasPermission("admin"))}
+ *
+ * @param <T> 被保护对象的类型
+ */
+public final class PermissionAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    // 授权结果不可变，复用两个实例避免每次判断都创建对象
+    static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final PermissionMask mask;
+
+    private PermissionAuthorizationManager(PermissionMask mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * 创建授权管理器，拥有任意一个权限即可访问
+     *
+     * @param permissions 权限标识
+     * @param <T>         被保护对象的类型
+     * @return 授权管理器
+     */
+    public static <T> PermissionAuthorizationManager<T> hasPermission(String... permissions) {
+        return new PermissionAuthorizationManager<>(PermissionMask.anyOf(permissions));
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        return mask.matches(authentication.get()) ? GRANTED : DENIED;
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionAuthorizationManager[" + mask + "]";
+    }
+}
@@ -0,0 +1,23 @@
+package com.scholar.securitytest.common;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明访问方法所需的权限，拥有其中任意一个权限即可访问。
+ * 与 {@code @PreAuthorize("hasAuthority('...')")} 等价，但在启动后首次调用时编译为位图判断，
+ * 之后每次调用都不再解析和执行 SpEL。可以标注在方法或类上，方法上的注解优先。
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresPermission {
+
+    /**
+     * 权限标识，如 "user:view"
+     */
+    String[] value();
+}
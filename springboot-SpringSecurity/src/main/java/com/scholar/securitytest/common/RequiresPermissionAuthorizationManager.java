@@ -0,0 +1,46 @@
+package com.scholar.securitytest.common;
+
+import com.scholar.securitytest.utils.PermissionMask;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 处理 {@link RequiresPermission} 注解的方法授权管理器
+ * 每个方法的注解只在第一次调用时解析并编译为 PermissionMask，之后直接做位图判断。
+ */
+public class RequiresPermissionAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    // 没有注解的方法对应的占位值（ConcurrentHashMap 不能存放 null）
+    private static final PermissionMask NO_ANNOTATION = PermissionMask.anyOf();
+
+    private final Map<Method, PermissionMask> masks = new ConcurrentHashMap<>();
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        PermissionMask mask = masks.computeIfAbsent(invocation.getMethod(), method -> compile(method, invocation.getThis()));
+        if (mask == NO_ANNOTATION) {
+            return null;  // 不做决定
+        }
+        return mask.matches(authentication.get())
+                ? PermissionAuthorizationManager.GRANTED : PermissionAuthorizationManager.DENIED;
+    }
+
+    private static PermissionMask compile(Method method, Object target) {
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : method.getDeclaringClass();
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        RequiresPermission annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, RequiresPermission.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresPermission.class);
+        }
+        return annotation == null ? NO_ANNOTATION : PermissionMask.anyOf(annotation.value());
+    }
+}
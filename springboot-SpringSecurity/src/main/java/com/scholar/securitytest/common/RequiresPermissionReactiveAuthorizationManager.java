@@ -0,0 +1,96 @@
+package com.scholar.securitytest.common;
+
+import com.scholar.securitytest.utils.PermissionMask;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 响应式技术栈的授权管理器，用于 URL 授权
+ * 响应式技术栈中没有基于 SecurityContextHolder 的方法拦截，这里在过滤链中找到请求对应的控制器方法，
+ * 检查其上的 {@link RequiresPermission} 注解；同时可以附加一组 URL 级别的权限，两者都满足才允许访问。
+ * 注解和权限都编译为 PermissionMask，每个方法只解析一次。
+ */
+public class RequiresPermissionReactiveAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
+
+    // 没有注解的方法对应的占位值（ConcurrentHashMap 不能存放 null）
+    private static final PermissionMask NO_ANNOTATION = PermissionMask.anyOf();
+
+    private final RequestMappingHandlerMapping handlerMapping;
+
+    // URL 级别的权限，为 null 时只要求已认证
+    private final PermissionMask urlMask;
+
+    private final Map<Method, PermissionMask> masks = new ConcurrentHashMap<>();
+
+    private RequiresPermissionReactiveAuthorizationManager(RequestMappingHandlerMapping handlerMapping,
+                                                           PermissionMask urlMask) {
+        this.handlerMapping = handlerMapping;
+        this.urlMask = urlMask;
+    }
+
+    /**
+     * 创建授权管理器：已认证，且拥有控制器方法注解要求的任意一个权限
+     *
+     * @param handlerMapping 用于查找请求对应的控制器方法
+     * @return 授权管理器
+     */
+    public static RequiresPermissionReactiveAuthorizationManager authenticated(
+            RequestMappingHandlerMapping handlerMapping) {
+        return new RequiresPermissionReactiveAuthorizationManager(handlerMapping, null);
+    }
+
+    /**
+     * 创建授权管理器：拥有任意一个指定的权限，且拥有控制器方法注解要求的任意一个权限
+     *
+     * @param handlerMapping 用于查找请求对应的控制器方法
+     * @param permissions    URL 级别的权限标识
+     * @return 授权管理器
+     */
+    public static RequiresPermissionReactiveAuthorizationManager hasPermission(
+            RequestMappingHandlerMapping handlerMapping, String... permissions) {
+        return new RequiresPermissionReactiveAuthorizationManager(handlerMapping, PermissionMask.anyOf(permissions));
+    }
+
+    @Override
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        Mono<PermissionMask> handlerMask = handlerMapping.getHandler(context.getExchange())
+                .map(handler -> handler instanceof HandlerMethod handlerMethod
+                        ? masks.computeIfAbsent(handlerMethod.getMethod(), method -> compile(handlerMethod))
+                        : NO_ANNOTATION)
+                .defaultIfEmpty(NO_ANNOTATION);
+        return authentication
+                .filter(RequiresPermissionReactiveAuthorizationManager::isAuthenticated)
+                .flatMap(user -> handlerMask.map(mask -> decide(user, mask)))
+                .defaultIfEmpty(PermissionAuthorizationManager.DENIED);
+    }
+
+    private AuthorizationDecision decide(Authentication authentication, PermissionMask handlerMask) {
+        boolean granted = (urlMask == null || urlMask.matches(authentication))
+                && (handlerMask == NO_ANNOTATION || handlerMask.matches(authentication));
+        return granted ? PermissionAuthorizationManager.GRANTED : PermissionAuthorizationManager.DENIED;
+    }
+
+    private static boolean isAuthenticated(Authentication authentication) {
+        return authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken);
+    }
+
+    private static PermissionMask compile(HandlerMethod handlerMethod) {
+        RequiresPermission annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(),
+                RequiresPermission.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequiresPermission.class);
+        }
+        return annotation == null ? NO_ANNOTATION : PermissionMask.anyOf(annotation.value());
+    }
+}
@@ -0,0 +1,35 @@
+package com.scholar.securitytest.common;
+
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.ResponseWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.web.server.authorization.ServerAccessDeniedHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式技术栈的授权失败处理器，响应内容与 AccessDeniedHandlerImpl 一致
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ServerAccessDeniedHandlerImpl implements ServerAccessDeniedHandler {
+
+    // 预先编码的响应体，内容与 AccessDeniedHandlerImpl 相同
+    private static final ResponseWriter.Payload FORBIDDEN = ResponseWriter.payload(
+            new ResponseResult(HttpStatus.FORBIDDEN.value(), "权限不足"));
+
+    @Autowired
+    private AuthMetrics authMetrics;  // 统计返回次数
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, AccessDeniedException denied) {
+
+        authMetrics.accessDenied();
+
+        return ResponseWriter.write(exchange.getResponse(), FORBIDDEN);  // 返回预先编码的响应体
+    }
+}
@@ -0,0 +1,35 @@
+package com.scholar.securitytest.common;
+
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.ResponseWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式技术栈的认证失败处理器，响应内容与 AuthenticationEntryPointImpl 一致
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ServerAuthenticationEntryPointImpl implements ServerAuthenticationEntryPoint {
+
+    // 预先编码的响应体，内容与 AuthenticationEntryPointImpl 相同
+    private static final ResponseWriter.Payload UNAUTHORIZED = ResponseWriter.payload(
+            new ResponseResult(HttpStatus.UNAUTHORIZED.value(), "认证失败，请重新登录"));
+
+    @Autowired
+    private AuthMetrics authMetrics;  // 统计返回次数
+
+    @Override
+    public Mono<Void> commence(ServerWebExchange exchange, AuthenticationException authException) {
+
+        authMetrics.unauthenticated();
+
+        return ResponseWriter.write(exchange.getResponse(), UNAUTHORIZED);  // 返回预先编码的响应体
+    }
+}
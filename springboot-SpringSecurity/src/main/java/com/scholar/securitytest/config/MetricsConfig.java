@@ -0,0 +1,52 @@
+package com.scholar.securitytest.config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.scholar.securitytest.utils.JwtTokenCache;
+import com.scholar.securitytest.utils.LoginUserCache;
+import com.scholar.securitytest.utils.UsernameBloomFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Supplier;
+
+/**
+ * 本地缓存的指标，采集时读取 Caffeine 的统计信息，请求路径上没有额外开销
+ * <ul>
+ *     <li>auth.cache.requests：按 cache（jwt 已验证 Token 缓存、session 登录用户本地缓存）和 result（hit/miss）区分的查询次数</li>
+ *     <li>auth.cache.evictions：因容量或存活时间被淘汰的条目数</li>
+ *     <li>auth.cache.hit.ratio：命中率</li>
+ *     <li>cache="jwt-rejected" 为近期验签失败的 token 摘要，命中即未经验签直接拒绝</li>
+ *     <li>auth.username.filtered：用户名一定不存在、未查询数据库即被拒绝的登录次数</li>
+ * </ul>
+ * 会话在本地未命中后从 Redis 读取，Redis 中也不存在的次数见 auth.session.fetch{result="absent"}。
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder authCacheMetrics(JwtTokenCache jwtTokenCache, LoginUserCache loginUserCache,
+                                        UsernameBloomFilter usernameBloomFilter) {
+        return registry -> {
+            bind(registry, "jwt", jwtTokenCache::stats);
+            bind(registry, "jwt-rejected", jwtTokenCache::rejectedStats);
+            bind(registry, "session", loginUserCache::stats);
+            FunctionCounter.builder("auth.username.filtered", usernameBloomFilter, UsernameBloomFilter::getRejectionCount)
+                    .description("用户名一定不存在、未查询数据库即被拒绝的登录次数").register(registry);
+        };
+    }
+
+    private static void bind(MeterRegistry registry, String cache, Supplier<CacheStats> stats) {
+        FunctionCounter.builder("auth.cache.requests", stats, s -> s.get().hitCount())
+                .description("本地缓存的查询次数").tags("cache", cache, "result", "hit").register(registry);
+        FunctionCounter.builder("auth.cache.requests", stats, s -> s.get().missCount())
+                .description("本地缓存的查询次数").tags("cache", cache, "result", "miss").register(registry);
+        FunctionCounter.builder("auth.cache.evictions", stats, s -> s.get().evictionCount())
+                .description("本地缓存淘汰的条目数").tags("cache", cache).register(registry);
+        Gauge.builder("auth.cache.hit.ratio", stats, s -> s.get().hitRate())
+                .description("本地缓存的命中率").tags("cache", cache).register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.scholar.securitytest.config;
+
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.CalibratedBCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+/**
+ * 密码编码器配置，Servlet 与响应式两种技术栈共用
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    /**
+     * 配置密码编码器。
+     * 使用 DelegatingPasswordEncoder，新哈希带 {bcrypt} 前缀，没有前缀的旧哈希按 BCrypt 校验；
+     * BCrypt 强度可以固定配置，也可以在启动时按目标耗时自动校准。
+     * 登录成功后，强度与目标不一致或没有前缀的哈希会通过 UserDetailsPasswordService 重新哈希并写回数据库。
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt.strength:0}") int strength,
+                                           @Value("${security.password.bcrypt.target-millis:100}") long targetMillis,
+                                           @Value("${security.password.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${security.password.bcrypt.max-strength:14}") int maxStrength,
+                                           @Value("${security.password.bcrypt.tolerance:1}") int tolerance,
+                                           AuthMetrics authMetrics) {
+        int chosen = strength > 0 ? strength
+                : CalibratedBCryptPasswordEncoder.calibrate(targetMillis, minStrength, maxStrength);
+        CalibratedBCryptPasswordEncoder bcrypt = new CalibratedBCryptPasswordEncoder(chosen, tolerance, authMetrics);
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);  // 兼容数据库中没有 {bcrypt} 前缀的旧哈希
+        return passwordEncoder;
+    }
+}
@@ -0,0 +1,54 @@
+package com.scholar.securitytest.config;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.scholar.securitytest.domain.Menu;
+import com.scholar.securitytest.mapper.MenuMapper;
+import com.scholar.securitytest.service.RolePermissionService;
+import com.scholar.securitytest.utils.AuthorityRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 启动时按 sys_menu 的ID顺序注册全部权限标识，
+ * 让权限ID稠密、权限位图尽量短，然后加载角色权限快照。
+ * 权限ID只在本进程内有意义：URL 规则的位图在本 Runner 之前就已编译，数据库不可用时ID按需分配，
+ * 因此各节点的ID可能不同，也不需要相同。
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PermissionRegistryInitializer implements ApplicationRunner {
+
+    @Autowired
+    private MenuMapper menuMapper;
+
+    @Autowired
+    private RolePermissionService rolePermissionService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            LambdaQueryWrapper<Menu> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.select(Menu::getPerms).orderByAsc(Menu::getId);
+            List<String> permissions = menuMapper.selectObjs(queryWrapper);
+            AuthorityRegistry.registerAll(permissions);
+            log.info("已注册 {} 个权限标识", permissions.size());
+        } catch (RuntimeException e) {
+            // 数据库暂不可用时不阻止启动，权限ID将在首次使用时按需分配
+            log.warn("加载权限标识失败，权限ID将按需分配：{}", e.getMessage());
+        }
+        try {
+            rolePermissionService.rebuild();
+        } catch (RuntimeException e) {
+            // 快照将在首次登录时加载
+            log.warn("加载角色权限快照失败，将在首次登录时加载：{}", e.getMessage());
+        }
+    }
+}
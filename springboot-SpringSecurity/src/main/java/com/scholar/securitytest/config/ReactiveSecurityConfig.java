@@ -0,0 +1,148 @@
+package com.scholar.securitytest.config;
+
+import com.scholar.securitytest.common.ServerAccessDeniedHandlerImpl;
+import com.scholar.securitytest.common.ServerAuthenticationEntryPointImpl;
+import com.scholar.securitytest.service.RolePermissionService;
+import com.scholar.securitytest.service.impl.ReactiveUserDetailsServiceImpl;
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.AuthTracer;
+import com.scholar.securitytest.utils.JwtReactiveAuthenticationManager;
+import com.scholar.securitytest.utils.JwtTokenCache;
+import com.scholar.securitytest.utils.LoginRateLimitWebFilter;
+import com.scholar.securitytest.utils.LoginRateLimiter;
+import com.scholar.securitytest.utils.LoginUserCache;
+import com.scholar.securitytest.utils.PasswordHashingExecutor;
+import com.scholar.securitytest.utils.ReactiveLoginUserCache;
+import com.scholar.securitytest.utils.StatelessAuthenticator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+
+import static com.scholar.securitytest.common.RequiresPermissionReactiveAuthorizationManager.authenticated;
+import static com.scholar.securitytest.common.RequiresPermissionReactiveAuthorizationManager.hasPermission;
+
+/**
+ * 响应式技术栈的安全配置，与 SecurityConfig 的规则一致。
+ * 通过 reactive 配置文件（spring.main.web-application-type=reactive）启用，控制器代码无需修改。
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity  // 开启Spring Security的WebFlux支持
+public class ReactiveSecurityConfig {
+
+    @Autowired
+    private ServerAccessDeniedHandlerImpl accessDeniedHandler;  // 自定义的授权失败处理器
+
+    @Autowired
+    private ServerAuthenticationEntryPointImpl authenticationEntryPoint;  // 自定义的认证失败处理器
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;  // actuator 的独立端口，只监听内网地址
+
+    /**
+     * 登录使用的 ReactiveAuthenticationManager。
+     * 用户查询在 boundedElastic 线程池中执行，密码校验在密码哈希线程池中执行，队列满时立即拒绝；
+     * 需要升级的密码哈希通过 ReactiveUserDetailsPasswordService 写回数据库。
+     */
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(ReactiveUserDetailsServiceImpl userDetailsService,
+                                                                       PasswordEncoder passwordEncoder,
+                                                                       PasswordHashingExecutor passwordHashingExecutor) {
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        authenticationManager.setUserDetailsPasswordService(userDetailsService);
+        authenticationManager.setScheduler(Schedulers.fromExecutor(passwordHashingExecutor));
+        return authenticationManager;
+    }
+
+    /**
+     * 配置Spring Security的响应式过滤链。
+     *
+     * @param http           用于构建安全配置的ServerHttpSecurity对象。
+     * @param handlerMapping 用于在授权时查找控制器方法上的 @RequiresPermission 注解
+     * @return 返回配置好的SecurityWebFilterChain对象。
+     */
+    @Bean
+    SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                  @Qualifier("requestMappingHandlerMapping")
+                                                  RequestMappingHandlerMapping handlerMapping,
+                                                  JwtTokenCache jwtTokenCache,
+                                                  ReactiveLoginUserCache reactiveLoginUserCache,
+                                                  LoginUserCache loginUserCache,
+                                                  RolePermissionService rolePermissionService,
+                                                  StatelessAuthenticator statelessAuthenticator,
+                                                  AuthMetrics authMetrics,
+                                                  AuthTracer authTracer,
+                                                  LoginRateLimiter loginRateLimiter) {
+        // JWT认证过滤器，认证失败时由认证失败处理器返回响应
+        AuthenticationWebFilter jwtAuthenticationFilter = new AuthenticationWebFilter(
+                new JwtReactiveAuthenticationManager(jwtTokenCache, reactiveLoginUserCache, loginUserCache,
+                        rolePermissionService, statelessAuthenticator, authMetrics, authTracer));
+        jwtAuthenticationFilter.setServerAuthenticationConverter(JwtReactiveAuthenticationManager::convert);
+        jwtAuthenticationFilter.setAuthenticationFailureHandler(
+                new ServerAuthenticationEntryPointFailureHandler(authenticationEntryPoint));
+        jwtAuthenticationFilter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+
+        http
+                .csrf(csrf -> csrf.disable())  // 禁用CSRF保护
+                .httpBasic(httpBasic -> httpBasic.disable())
+                .formLogin(formLogin -> formLogin.disable())
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())  // 无状态会话
+                .authorizeExchange(auth -> auth
+                        // 只允许匿名访问登录和刷新令牌接口，与 Servlet 技术栈的 anonymous() 一致
+                        .pathMatchers("/user/login", "/user/token/refresh").access((authentication, context) -> authentication
+                                .map(user -> new AuthorizationDecision(user instanceof AnonymousAuthenticationToken))
+                                .defaultIfEmpty(new AuthorizationDecision(true)))
+                        .pathMatchers("/.well-known/jwks.json").permitAll()  // 公钥对所有人公开
+                        // 健康检查和指标采集只在管理端口上放行，业务端口上不放行任何 actuator 端点
+                        .matchers(this::matchManagementPort).permitAll()
+                        // URL权限与控制器方法上的 @RequiresPermission 都编译为位图运算
+                        .pathMatchers("/admin/**").access(hasPermission(handlerMapping, "admin"))
+                        .pathMatchers("/user/**").access(hasPermission(handlerMapping, "user"))
+                        .anyExchange().access(authenticated(handlerMapping)))  // 其他接口需要身份认证
+                .cors(cors -> cors.configurationSource(exchange -> new CorsConfiguration().applyPermitDefaultValues()))
+                .addFilterAt(jwtAuthenticationFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                // 登录限流在认证过滤器之前执行，超限的登录不进入密码校验
+                .addFilterBefore(new LoginRateLimitWebFilter(loginRateLimiter, authMetrics),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .exceptionHandling(exception -> exception
+                        .accessDeniedHandler(accessDeniedHandler)  // 配置授权失败处理器
+                        .authenticationEntryPoint(authenticationEntryPoint));  // 配置认证失败处理器
+        return http.build();
+    }
+
+    // 管理端口与业务端口相同时（actuator 在业务端口上），不按端口放行
+    private Mono<ServerWebExchangeMatcher.MatchResult> matchManagementPort(ServerWebExchange exchange) {
+        InetSocketAddress local = exchange.getRequest().getLocalAddress();
+        boolean matches = managementPort > 0 && managementPort != serverPort
+                && local != null && local.getPort() == managementPort;
+        return matches ? ServerWebExchangeMatcher.MatchResult.match() : ServerWebExchangeMatcher.MatchResult.notMatch();
+    }
+}
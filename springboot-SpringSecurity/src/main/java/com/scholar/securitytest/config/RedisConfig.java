@@ -1,10 +1,23 @@
 package com.scholar.securitytest.config;
 
-import com.scholar.securitytest.utils.FastJsonRedisSerializer;
+import com.scholar.securitytest.service.impl.RolePermissionServiceImpl;
+import com.scholar.securitytest.utils.JwtKeyRing;
+import com.scholar.securitytest.utils.LoginUserCache;
+import com.scholar.securitytest.utils.ResilientRedisMessageListenerContainer;
+import com.scholar.securitytest.utils.SessionRedisSerializer;
+import com.scholar.securitytest.utils.UsernameBloomFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration  // 标识这是一个配置类
@@ -12,22 +25,22 @@ public class RedisConfig {
 
     // 定义 RedisTemplate Bean
     @Bean
-    @SuppressWarnings(value = {"unchecked", "rawtypes"})  // 抑制类型检查警告
-    public RedisTemplate<Object, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<Object, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       @Value("${session.codec.write-binary:true}") boolean writeBinary) {
         RedisTemplate<Object, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);  // 设置连接工厂，连接 Redis 数据库
 
-        // 自定义 FastJsonRedisSerializer 用于对象序列化和反序列化
-        FastJsonRedisSerializer serializer = new FastJsonRedisSerializer(Object.class);
+        // 自定义序列化器：LoginUser 使用紧凑的二进制格式，其他对象使用 FastJSON，读取时自动识别两种格式
+        SessionRedisSerializer serializer = new SessionRedisSerializer(writeBinary);
 
         // 设置 RedisTemplate 的 key 和 value 序列化方式
         // 使用 StringRedisSerializer 来序列化 Redis 的 key 值
         template.setKeySerializer(new StringRedisSerializer());
         
-        // 使用 FastJsonRedisSerializer 来序列化 Redis 的 value 值
+        // 使用 SessionRedisSerializer 来序列化 Redis 的 value 值
         template.setValueSerializer(serializer);
         
-        // 对于 Hash 类型的 Redis 数据结构，key 使用 StringRedisSerializer，value 使用 FastJsonRedisSerializer
+        // 对于 Hash 类型的 Redis 数据结构，key 使用 StringRedisSerializer，value 使用 SessionRedisSerializer
         template.setHashKeySerializer(new StringRedisSerializer());
         template.setHashValueSerializer(serializer);
 
@@ -35,4 +48,37 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;  // 返回 RedisTemplate 实例
     }
+
+    // 响应式技术栈读写登录会话使用的 ReactiveRedisTemplate，序列化方式与 redisTemplate 一致
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReactiveRedisTemplate<String, Object> sessionReactiveRedisTemplate(
+            ReactiveRedisConnectionFactory connectionFactory,
+            @Value("${session.codec.write-binary:true}") boolean writeBinary) {
+        SessionRedisSerializer serializer = new SessionRedisSerializer(writeBinary);
+        RedisSerializationContext<String, Object> context = RedisSerializationContext
+                .<String, Object>newSerializationContext(new StringRedisSerializer())
+                .value(serializer)
+                .hashValue(serializer)
+                .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+
+    // 定义 Redis 消息监听容器，用于接收登录用户本地缓存的失效通知、角色权限快照的重建通知、新建用户的通知和 JWT 公钥的变化通知
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       LoginUserCache loginUserCache,
+                                                                       RolePermissionServiceImpl rolePermissionService,
+                                                                       UsernameBloomFilter usernameBloomFilter,
+                                                                       ObjectProvider<JwtKeyRing> jwtKeyRing) {
+        // Redis 暂不可用时不阻止应用启动，而是在后台重试订阅
+        RedisMessageListenerContainer container = new ResilientRedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(loginUserCache, new ChannelTopic(LoginUserCache.INVALIDATION_CHANNEL));
+        container.addMessageListener(rolePermissionService, new ChannelTopic(RolePermissionServiceImpl.REBUILD_CHANNEL));
+        container.addMessageListener(usernameBloomFilter, new ChannelTopic(UsernameBloomFilter.CREATED_CHANNEL));
+        // 启用非对称签名时，其他节点轮换密钥后立即重新加载公钥
+        jwtKeyRing.ifAvailable(keyRing -> container.addMessageListener(keyRing, new ChannelTopic(JwtKeyRing.CHANGED_CHANNEL)));
+        return container;
+    }
 }
@@ -4,25 +4,46 @@ import com.scholar.securitytest.common.AccessDeniedHandlerImpl;
 //import com.scholar.securitytest.common.AuthenticationEntryPointImpl;
 //import com.scholar.securitytest.common.AuthenticationEntryPointImpl;
 import com.scholar.securitytest.common.AuthenticationEntryPointImpl;
+import com.scholar.securitytest.common.BitsetPermissionEvaluator;
+import com.scholar.securitytest.common.RequiresPermission;
+import com.scholar.securitytest.common.RequiresPermissionAuthorizationManager;
 import com.scholar.securitytest.utils.JwtAuthenticationTokenFilter;
+import com.scholar.securitytest.utils.LoginRateLimitFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.Pointcuts;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 
+import static com.scholar.securitytest.common.PermissionAuthorizationManager.hasPermission;
+
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)  // Servlet 技术栈，响应式技术栈见 ReactiveSecurityConfig
 @EnableWebSecurity  // 开启Spring Security功能
-@EnableGlobalMethodSecurity(prePostEnabled = true)  // 启用基于注解的权限控制
+@EnableMethodSecurity  // 启用基于注解的权限控制（@PreAuthorize 与自定义的 @RequiresPermission）
 public class SecurityConfig {
 
     @Autowired
@@ -31,16 +52,45 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationTokenFilter jwtAuthenticationTokenFilter;
 
+    @Autowired
+    private LoginRateLimitFilter loginRateLimitFilter;  // 登录限流，在密码校验之前拒绝过于频繁的登录
+
     @Autowired
     AccessDeniedHandlerImpl accessDeniedHandler;  // 注入自定义的AccessDeniedHandler
 
     @Autowired
     AuthenticationEntryPointImpl authenticationEntryPoint;  // 注入自定义的AuthenticationEntryPoint
 
-    // 配置密码编码器
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;  // actuator 的独立端口，只监听内网地址
+
+    // 配置基于权限位图的 PermissionEvaluator，供 SpEL 中的 hasPermission(...) 使用
+    @Bean
+    static PermissionEvaluator permissionEvaluator() {
+        return new BitsetPermissionEvaluator();
+    }
+
+    // 让方法安全的 SpEL 表达式使用上面的 PermissionEvaluator
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();  // 使用BCrypt加密算法
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler(PermissionEvaluator permissionEvaluator) {
+        DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+        handler.setPermissionEvaluator(permissionEvaluator);
+        return handler;
+    }
+
+    // 处理 @RequiresPermission 注解的方法拦截器，与 @PreAuthorize 处于同一顺序
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresPermissionAuthorizationAdvisor() {
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                Pointcuts.union(new AnnotationMatchingPointcut(null, RequiresPermission.class, true),
+                        new AnnotationMatchingPointcut(RequiresPermission.class, true)),
+                new RequiresPermissionAuthorizationManager());
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
     }
 
     // 配置AuthenticationManager
@@ -49,6 +99,23 @@ public class SecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();  // 获取AuthenticationManager
     }
 
+    // 登录认证通过后的 I/O 步骤（写入 Redis 会话、签发刷新令牌）在这里执行，不占用有界的密码哈希线程池；
+    // 开启虚拟线程时每个任务一个虚拟线程
+    @Bean
+    public AsyncTaskExecutor loginIoExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                             @Value("${security.login.io-threads:16}") int threads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("login-io-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("login-io-");
+        return executor;
+    }
+
     /**
      * 配置Spring Security的过滤链。
      *
@@ -62,13 +129,22 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())  // 禁用CSRF保护
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))  // 设置无状态会话
                 .authorizeHttpRequests(auth -> auth
-                    .requestMatchers("/user/login").anonymous()  // 放行登录接口，允许匿名访问
-                        .requestMatchers("/admin/**").hasAuthority("admin")  // 只有admin角色才能访问/admin/**路径
-                        .requestMatchers("/user/**").hasAuthority("user")  // 只有user角色才能访问/user/**路径
+                        // 异步处理（登录、刷新令牌、登出返回 CompletableFuture）的结果在 ASYNC 分派中写出，授权已在首次分派时完成；
+                        // 会话无状态，SecurityContext 不会带到 ASYNC 分派，不放行的话已认证的请求会在写出结果时被拒绝
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                    .requestMatchers("/user/login", "/user/token/refresh").anonymous()  // 放行登录和刷新令牌接口，允许匿名访问
+                        .requestMatchers("/.well-known/jwks.json").permitAll()  // 公钥对所有人公开
+                        // 健康检查和指标采集只在管理端口上放行，业务端口上不放行任何 actuator 端点
+                        .requestMatchers(request -> isManagementPort(request.getLocalPort())).permitAll()
+                        // 权限判断在启动时编译为位图运算，不再逐个比较权限字符串
+                        .requestMatchers("/admin/**").access(hasPermission("admin"))  // 只有admin角色才能访问/admin/**路径
+                        .requestMatchers("/user/**").access(hasPermission("user"))  // 只有user角色才能访问/user/**路径
                     .anyRequest().authenticated())  // 其他接口需要身份认证
                 .cors(cors -> cors.configurationSource(request -> new CorsConfiguration().applyPermitDefaultValues())) // 配置CORS
                 // 添加JWT认证过滤器，确保在UsernamePasswordAuthenticationFilter之前执行
                 .addFilterBefore(jwtAuthenticationTokenFilter, UsernamePasswordAuthenticationFilter.class)
+                // 登录限流在JWT认证过滤器之前执行
+                .addFilterBefore(loginRateLimitFilter, JwtAuthenticationTokenFilter.class)
                 // 配置异常处理
                 .exceptionHandling(exception -> exception
                         .accessDeniedHandler(accessDeniedHandler)// 配置授权失败处理器
@@ -76,4 +152,9 @@ public class SecurityConfig {
 //        // 返回配置好的过滤链
         return http.build();
     }
+
+    // 管理端口与业务端口相同时（actuator 在业务端口上），不按端口放行
+    private boolean isManagementPort(int localPort) {
+        return managementPort > 0 && managementPort != serverPort && localPort == managementPort;
+    }
 }
\ No newline at end of file
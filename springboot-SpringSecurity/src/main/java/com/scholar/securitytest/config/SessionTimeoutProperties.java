@@ -0,0 +1,69 @@
+package com.scholar.securitytest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 登录会话超时配置
+ * 空闲超时：超过该时间没有请求，会话失效；每次请求都会延长（滑动过期）。
+ * 绝对超时：从登录开始计算，到期后无论是否活跃都需要重新登录。
+ * 可以按用户类型（User.type）分别配置，未配置的类型使用默认值。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "session.timeout")
+public class SessionTimeoutProperties {
+
+    /**
+     * 默认空闲超时
+     */
+    private Duration idle = Duration.ofMinutes(30);
+
+    /**
+     * 默认绝对超时
+     */
+    private Duration absolute = Duration.ofHours(12);
+
+    /**
+     * 按用户类型覆盖的超时配置，键为 User.type
+     */
+    private Map<String, Timeout> tenants = new HashMap<>();
+
+    /**
+     * 获取指定用户类型的空闲超时
+     *
+     * @param tenant 用户类型
+     * @return 空闲超时
+     */
+    public Duration idleOf(String tenant) {
+        Timeout timeout = tenant == null ? null : tenants.get(tenant);
+        return timeout == null || timeout.getIdle() == null ? idle : timeout.getIdle();
+    }
+
+    /**
+     * 获取指定用户类型的绝对超时
+     *
+     * @param tenant 用户类型
+     * @return 绝对超时
+     */
+    public Duration absoluteOf(String tenant) {
+        Timeout timeout = tenant == null ? null : tenants.get(tenant);
+        return timeout == null || timeout.getAbsolute() == null ? absolute : timeout.getAbsolute();
+    }
+
+    /**
+     * 单个用户类型的超时配置，未配置的项使用默认值
+     */
+    @Data
+    public static class Timeout {
+
+        private Duration idle;
+
+        private Duration absolute;
+    }
+}
@@ -0,0 +1,36 @@
+package com.scholar.securitytest.controller;
+
+import com.scholar.securitytest.utils.JwtKeyRing;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+public class JwksController {
+
+    // 未启用非对称签名（HS256）时没有可公开的密钥
+    private static final String EMPTY_JWKS = "{\"keys\":[]}";
+
+    @Autowired
+    private ObjectProvider<JwtKeyRing> jwtKeyRing;
+
+    // 客户端缓存 JWKS 的时长，不超过公钥的提前发布时间即可保证新密钥签发的 token 能被验签
+    @Value("${jwt.signing.jwks-max-age:PT5M}")
+    private Duration maxAge;
+
+    // 公开的 JWK Set（RFC 7517），其他服务据此自行验签，无需调用本服务；文档已预先生成，直接返回
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        JwtKeyRing keyRing = jwtKeyRing.getIfAvailable();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .body(keyRing == null ? EMPTY_JWKS : keyRing.jwks());
+    }
+}
@@ -4,29 +4,37 @@ import com.scholar.securitytest.common.ResponseResult;
 import com.scholar.securitytest.domain.User;
 import com.scholar.securitytest.service.LoginService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 public class LoginController {
 
     @Autowired
     private LoginService loginService;
 
-    // 登录接口，接收用户名和密码，进行认证
+    // 登录接口，接收用户名和密码，进行认证（异步处理，密码校验期间不占用请求线程）
     @PostMapping("/user/login")
-    public ResponseResult login(@RequestBody User user) {
-        System.out.println(user);
+    public CompletableFuture<ResponseResult> login(@RequestBody User user) {
         return loginService.login(user);
     }
 
-
+    // 刷新令牌接口，允许匿名访问，请求体为 {"refreshToken": "..."}
+    // 缺少请求体、缺少字段或字段不是字符串时按无效令牌处理
+    @PostMapping("/user/token/refresh")
+    public CompletableFuture<ResponseResult> refresh(@RequestBody(required = false) Map<String, Object> body) {
+        Object refreshToken = body == null ? null : body.get("refreshToken");
+        return loginService.refresh(refreshToken instanceof String token ? token : null);
+    }
 
     @PostMapping("/user/logout")
-    public ResponseResult logout() {
-        System.out.println("开始登出");
-        return loginService.logout();  // 调用服务层的退出登录方法
+    public CompletableFuture<ResponseResult> logout(Authentication authentication) {
+        return loginService.logout(authentication);  // 调用服务层的退出登录方法
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.scholar.securitytest.controller;
+
+import com.scholar.securitytest.common.ResponseResult;
+import com.scholar.securitytest.service.OnlineSessionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/sessions")
+public class OnlineSessionController {
+
+    // 单页最多返回的会话数
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private OnlineSessionService onlineSessionService;
+
+    // 在线会话数
+    @GetMapping("/count")
+    public ResponseResult count() {
+        return new ResponseResult(200, Map.of("count", onlineSessionService.count()));
+    }
+
+    // 分页查看在线会话
+    @GetMapping
+    public ResponseResult page(@RequestParam(defaultValue = "0") long skip,
+                               @RequestParam(defaultValue = "20") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return new ResponseResult(200, onlineSessionService.page(Math.max(0, skip), pageSize));
+    }
+
+    // 强制指定用户下线
+    @PostMapping("/evict")
+    public ResponseResult evict(@RequestBody List<String> userIds) {
+        return new ResponseResult(200, "已强制下线", Map.of("evicted", onlineSessionService.evict(userIds)));
+    }
+
+    // 强制所有用户下线
+    @DeleteMapping
+    public ResponseResult evictAll() {
+        return new ResponseResult(200, "已强制下线", Map.of("evicted", onlineSessionService.evictAll()));
+    }
+}
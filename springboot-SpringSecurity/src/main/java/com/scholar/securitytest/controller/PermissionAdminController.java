@@ -0,0 +1,23 @@
+package com.scholar.securitytest.controller;
+
+import com.scholar.securitytest.common.ResponseResult;
+import com.scholar.securitytest.service.RolePermissionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class PermissionAdminController {
+
+    @Autowired
+    private RolePermissionService rolePermissionService;
+
+    // 修改角色或菜单后调用，重建所有节点的角色权限快照，已登录用户的权限在下次请求时刷新
+    @PostMapping("/admin/permissions/rebuild")
+    public ResponseResult rebuild() {
+        String version = rolePermissionService.rebuildAndBroadcast();
+        return new ResponseResult(200, "角色权限快照已重建", Map.of("version", version));
+    }
+}
@@ -1,16 +1,16 @@
 package com.scholar.securitytest.domain;
 
 import com.alibaba.fastjson.annotation.JSONField;
+import com.scholar.securitytest.utils.AuthorityRegistry;
+import com.scholar.securitytest.utils.AuthoritySet;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 登录用户的封装类，实现 Spring Security 的 UserDetails 接口。
@@ -33,11 +33,26 @@ public class LoginUser implements UserDetails {
     private List<String> permissions;
 
     /**
-     * 用户权限的 Spring Security 表示形式，存储在 SimpleGrantedAuthority 对象中。
+     * 用户拥有的角色ID，用于在角色权限变化后重新计算权限。
+     */
+    private List<Long> roleIds;
+
+    /**
+     * 计算权限时所用角色权限快照的版本，与当前快照版本不同时说明权限已过期。
+     */
+    private String permVersion;
+
+    /**
+     * 登录时间（毫秒时间戳），用于计算会话的绝对超时。
+     */
+    private Long loginTime;
+
+    /**
+     * 用户权限的 Spring Security 表示形式，是从 AuthorityRegistry 获取的共享不可变集合。
      * 这个字段不参与序列化，以避免冗余数据被存入 Redis。
      */
-    @JSONField(serialize = false)
-    private List<SimpleGrantedAuthority> authorities;
+    @JSONField(serialize = false, deserialize = false)
+    private AuthoritySet authorities;
 
     /**
      * 带有用户和权限信息的构造函数。
@@ -56,23 +71,51 @@ public class LoginUser implements UserDetails {
     public LoginUser(User user) {
     }
 
+    /**
+     * 设置用户的权限信息，并清除已转换的权限集合。
+     *
+     * @param permissions 用户的权限信息列表
+     */
+    public void setPermissions(List<String> permissions) {
+        this.permissions = permissions;
+        this.authorities = null;
+    }
+
     /**
      * 获取用户的权限信息，转换为 Spring Security 所需要的 GrantedAuthority 对象。
+     * 相同的权限列表共享同一个不可变集合，重复获取不会创建新对象。
      *
      * @return 用户的权限信息
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        // 如果 authorities 尚未被设置，进行权限信息的转换
+        // 如果 authorities 尚未被设置，从权限注册表获取共享的权限集合
         if (authorities == null) {
-            // 将字符串类型的权限信息（如 "ROLE_USER"）转换为 SimpleGrantedAuthority 对象
-            authorities = permissions.stream()
-                    .map(SimpleGrantedAuthority::new)  // 将权限字符串映射为 GrantedAuthority 对象
-                    .collect(Collectors.toList());  // 收集成一个 List
+            authorities = AuthorityRegistry.authoritySetOf(permissions);
         }
         return authorities;
     }
 
+    /**
+     * 判断用户是否拥有指定权限，时间复杂度为 O(1)。
+     *
+     * @param permission 权限标识，如 "user:view"
+     * @return 是否拥有该权限
+     */
+    public boolean hasPermission(String permission) {
+        return authoritySet().containsPermission(permission);
+    }
+
+    /**
+     * 获取用户的权限集合（带权限ID位图），供 PermissionMask 进行位运算判断。
+     *
+     * @return 共享的不可变权限集合
+     */
+    public AuthoritySet authoritySet() {
+        getAuthorities();
+        return authorities;
+    }
+
     /**
      * 获取用户的密码。
      *
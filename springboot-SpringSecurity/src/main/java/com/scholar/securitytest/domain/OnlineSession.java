@@ -0,0 +1,34 @@
+package com.scholar.securitytest.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 在线会话的摘要信息，用于管理端查看在线用户
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OnlineSession {
+
+    /**
+     * 用户ID
+     */
+    private String userId;
+
+    /**
+     * 用户名
+     */
+    private String userName;
+
+    /**
+     * 昵称
+     */
+    private String nickName;
+
+    /**
+     * 登录时间（毫秒时间戳），旧会话可能没有
+     */
+    private Long loginTime;
+}
@@ -0,0 +1,27 @@
+package com.scholar.securitytest.domain;
+
+import lombok.Value;
+
+/**
+ * 刷新令牌
+ * 令牌本身是随机生成的不透明字符串，Redis 中只保存其 SHA-256 摘要。
+ * 同一次登录后轮换出的令牌属于同一个家族，家族的有效期从登录开始计算，不随轮换延长。
+ */
+@Value
+public class RefreshToken {
+
+    /**
+     * 返回给客户端的令牌
+     */
+    String token;
+
+    /**
+     * 用户ID
+     */
+    String userId;
+
+    /**
+     * 令牌家族ID
+     */
+    String familyId;
+}
@@ -0,0 +1,27 @@
+package com.scholar.securitytest.domain;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 角色与权限标识的对应关系，由 MenuMapper.selectRolePermissions 查询得到
+ */
+@Data
+@NoArgsConstructor
+public class RolePermission {
+
+    /**
+     * 角色ID
+     */
+    private Long roleId;
+
+    /**
+     * 菜单ID，同时作为权限在 token 权限位图中的位置
+     */
+    private Long menuId;
+
+    /**
+     * 权限标识
+     */
+    private String perms;
+}
@@ -0,0 +1,30 @@
+package com.scholar.securitytest.domain;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用户及其启用的角色，由 UserMapper.selectWithRolesByUserName 一次查询得到
+ */
+@Data
+@NoArgsConstructor
+public class UserRoles {
+
+    /**
+     * 用户ID，作为结果映射的主键
+     */
+    private Long userId;
+
+    /**
+     * 用户信息
+     */
+    private User user;
+
+    /**
+     * 用户拥有的启用状态的角色ID
+     */
+    private List<Long> roleIds = new ArrayList<>();
+}
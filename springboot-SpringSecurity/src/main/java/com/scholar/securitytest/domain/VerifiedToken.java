@@ -0,0 +1,46 @@
+package com.scholar.securitytest.domain;
+
+import lombok.Value;
+
+/**
+ * 验签通过的 JWT 中与认证相关的声明。
+ * 由 JwtTokenCache 缓存，命中时无需再次解析和验签；认证成功后作为 Authentication 的 details 保存，供登出时吊销。
+ */
+@Value
+public class VerifiedToken {
+
+    /**
+     * token 的主题（即用户ID）
+     */
+    String subject;
+
+    /**
+     * token 的过期时间（毫秒时间戳）
+     */
+    long expiration;
+
+    /**
+     * token 的唯一标识（jti）
+     */
+    String id;
+
+    /**
+     * token 的签发时间（毫秒时间戳，精确到秒），没有签发时间时为 0
+     */
+    long issuedAt;
+
+    /**
+     * 无状态模式下 token 中携带的用户名，普通 token 为 null
+     */
+    String userName;
+
+    /**
+     * 无状态模式下 token 中携带的紧凑权限声明（菜单ID位图，见 PermissionClaimCodec），普通 token 为 null
+     */
+    String permissionClaim;
+
+    /**
+     * 签发 token 时角色权限快照的版本，普通 token 为 null
+     */
+    String permVersion;
+}
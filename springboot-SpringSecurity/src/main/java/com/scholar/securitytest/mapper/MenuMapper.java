@@ -2,11 +2,11 @@ package com.scholar.securitytest.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.scholar.securitytest.domain.Menu;
-import org.apache.ibatis.annotations.Param;
+import com.scholar.securitytest.domain.RolePermission;
 
 import java.util.List;
 
 public interface MenuMapper extends BaseMapper<Menu> {
-    // 根据用户ID查询该用户的所有权限
-    List<String> selectPermsByUserId(@Param("userId") Long userId);
+    // 查询所有启用的角色与其权限标识的对应关系
+    List<RolePermission> selectRolePermissions();
 }
\ No newline at end of file
@@ -2,6 +2,19 @@ package com.scholar.securitytest.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.scholar.securitytest.domain.User;
+import com.scholar.securitytest.domain.UserRoles;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 // 继承 BaseMapper 提供基础的 CRUD 操作
-public interface UserMapper extends BaseMapper<User> {}
\ No newline at end of file
+public interface UserMapper extends BaseMapper<User> {
+    // 根据用户名一次性查询用户信息及其启用的角色ID，用户不存在时返回 null
+    UserRoles selectWithRolesByUserName(@Param("userName") String userName);
+
+    // 查询全部用户名，用于重建用户名过滤器
+    List<String> selectAllUserNames();
+
+    // 查询最大的用户ID（主键，无需扫描），没有用户时返回 null
+    Long selectMaxUserId();
+}
@@ -0,0 +1,57 @@
+package com.scholar.securitytest.service;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Map;
+
+/**
+ * JWT 服务
+ * 用于生成和解析 JWT，签名密钥在启动时从配置中加载一次。
+ */
+public interface JwtService {
+
+    /**
+     * 创建 JWT（使用默认的有效期）
+     *
+     * @param subject token 中存储的数据（通常是用户标识信息）
+     * @return 生成的 JWT 字符串
+     */
+    String createJWT(String subject);
+
+    /**
+     * 创建 JWT（指定有效期）
+     *
+     * @param subject   token 中存储的数据（通常是用户标识信息）
+     * @param ttlMillis token 的有效期（毫秒），为 null 时使用默认值
+     * @return 生成的 JWT 字符串
+     */
+    String createJWT(String subject, Long ttlMillis);
+
+    /**
+     * 创建 JWT（指定 ID、有效期和存储数据）
+     *
+     * @param id        token 的唯一标识
+     * @param subject   token 中存储的数据
+     * @param ttlMillis token 的有效期（毫秒），为 null 时使用默认值
+     * @return 生成的 JWT 字符串
+     */
+    String createJWT(String id, String subject, Long ttlMillis);
+
+    /**
+     * 创建 JWT（附加自定义声明）
+     *
+     * @param subject token 中存储的数据
+     * @param claims  附加的声明，写在标准声明之后，为空时与 createJWT(subject) 相同
+     * @return 生成的 JWT 字符串
+     */
+    String createJWT(String subject, Map<String, Object> claims);
+
+    /**
+     * 解析并验证 JWT
+     *
+     * @param jwt token 字符串
+     * @return 解析后的 Claims（包含 token 中存储的数据）
+     * @throws Exception 如果解析、验签失败或 token 已过期，抛出异常
+     */
+    Claims parseJWT(String jwt) throws Exception;
+}
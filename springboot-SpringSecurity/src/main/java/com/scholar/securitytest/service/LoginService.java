@@ -3,10 +3,18 @@ package com.scholar.securitytest.service;
 import com.scholar.securitytest.common.ResponseResult;
 import com.scholar.securitytest.domain.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.CompletableFuture;
 
 @Mapper
 public interface LoginService {
-    ResponseResult login(User user);
+    // 登录在密码哈希线程池中异步执行，不占用请求线程
+    CompletableFuture<ResponseResult> login(User user);
+
+    // 使用刷新令牌换取新的访问令牌，不查询数据库，也不校验密码
+    CompletableFuture<ResponseResult> refresh(String refreshToken);
 
-    ResponseResult logout();
+    // 当前认证信息由控制器传入，Servlet 与响应式技术栈都适用；details 中是验签后的token，用于吊销
+    CompletableFuture<ResponseResult> logout(Authentication authentication);
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.scholar.securitytest.service;
+
+import com.scholar.securitytest.domain.OnlineSession;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 在线会话管理
+ * 通过 SCAN 增量遍历 Redis 中的 "login:*" 会话，不会阻塞 Redis。
+ */
+public interface OnlineSessionService {
+
+    /**
+     * 统计在线会话数。SCAN 可能重复返回个别键，结果为近似值
+     *
+     * @return 在线会话数
+     */
+    long count();
+
+    /**
+     * 分页查看在线会话，顺序由 Redis 决定，翻页期间会话增减可能导致个别会话重复或遗漏
+     *
+     * @param skip  跳过的会话数
+     * @param limit 返回的最大会话数
+     * @return 在线会话
+     */
+    List<OnlineSession> page(long skip, int limit);
+
+    /**
+     * 强制指定用户下线
+     *
+     * @param userIds 用户ID
+     * @return 删除的会话数
+     */
+    long evict(Collection<String> userIds);
+
+    /**
+     * 强制所有用户下线，分批删除
+     *
+     * @return 删除的会话数
+     */
+    long evictAll();
+}
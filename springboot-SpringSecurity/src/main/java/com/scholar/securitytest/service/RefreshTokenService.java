@@ -0,0 +1,37 @@
+package com.scholar.securitytest.service;
+
+import com.scholar.securitytest.domain.RefreshToken;
+
+import java.util.Collection;
+
+/**
+ * 刷新令牌服务
+ * 刷新令牌只能使用一次，每次使用都会轮换为新的令牌；已使用过的令牌再次出现说明令牌可能被盗用，
+ * 此时吊销整个令牌家族，持有者（包括合法用户）都需要重新登录。
+ */
+public interface RefreshTokenService {
+
+    /**
+     * 登录成功后签发新家族的第一个刷新令牌
+     *
+     * @param userId 用户ID
+     * @return 刷新令牌
+     */
+    RefreshToken issue(String userId);
+
+    /**
+     * 使用刷新令牌，原子地作废旧令牌并签发同一家族的新令牌
+     *
+     * @param token 客户端提交的刷新令牌
+     * @return 新的刷新令牌；令牌为空、无效、已过期、已被重复使用或家族已被吊销时返回 null
+     */
+    RefreshToken rotate(String token);
+
+    /**
+     * 吊销用户的全部令牌家族，登出和强制下线时调用
+     *
+     * @param userIds 用户ID
+     * @return 吊销的家族数
+     */
+    long revokeUsers(Collection<String> userIds);
+}
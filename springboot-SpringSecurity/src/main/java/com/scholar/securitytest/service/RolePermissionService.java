@@ -0,0 +1,67 @@
+package com.scholar.securitytest.service;
+
+import com.scholar.securitytest.domain.LoginUser;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 角色权限快照服务
+ * 在内存中保存 “角色ID → 权限标识” 的不可变快照，用户权限由其角色的权限合并得到，无需每次登录查询数据库。
+ */
+public interface RolePermissionService {
+
+    /**
+     * 合并多个角色的权限标识
+     *
+     * @param roleIds 角色ID
+     * @return 去重后的权限标识，顺序固定
+     */
+    List<String> permissionsOf(Collection<Long> roleIds);
+
+    /**
+     * 当前快照的版本，由快照内容计算得出，内容相同的快照在各节点上版本一致
+     *
+     * @return 版本，尚未加载时返回 null
+     */
+    String version();
+
+    /**
+     * 从数据库重新加载快照，并原子地替换当前快照
+     *
+     * @return 新快照的版本
+     */
+    String rebuild();
+
+    /**
+     * 重新加载本节点的快照，并通过 Redis 发布/订阅通知其他节点重新加载
+     *
+     * @return 新快照的版本
+     */
+    String rebuildAndBroadcast();
+
+    /**
+     * 如果会话中的权限来自旧版本的快照，按当前快照重新计算
+     *
+     * @param loginUser 登录用户
+     * @return 权限已是最新时返回原对象，否则返回权限更新后的副本
+     */
+    LoginUser refreshPermissions(LoginUser loginUser);
+
+    /**
+     * 把权限标识编码为 token 中的紧凑权限声明（菜单ID位图）
+     *
+     * @param permissions 权限标识
+     * @return 编码结果；快照尚未加载或有权限不在快照中时返回 null
+     */
+    String encodePermissions(List<String> permissions);
+
+    /**
+     * 解码 token 中的权限声明
+     *
+     * @param encoded 权限声明
+     * @param version 签发 token 时的快照版本
+     * @return 权限标识；版本与当前快照不同（或快照尚未加载）时返回 null，调用方应改为读取会话
+     */
+    List<String> decodePermissions(String encoded, String version);
+}
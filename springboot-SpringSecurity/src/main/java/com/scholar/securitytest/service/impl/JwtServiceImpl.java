@@ -0,0 +1,223 @@
+package com.scholar.securitytest.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scholar.securitytest.service.JwtService;
+import com.scholar.securitytest.utils.InstancePool;
+import com.scholar.securitytest.utils.JwtKeyRing;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 基于 HS256 的 JWT 服务
+ * 密钥只在启动时解码一次；已初始化的 Mac 放在对象池中复用，池为空时克隆原型，签名和验签都不再创建密钥、查找算法实现。
+ * 生成的 token 与 JwtUtil（jjwt）完全兼容：头部固定为 {"alg":"HS256"}，声明顺序为 jti、sub、iss、iat、exp。
+ * 头部不是该固定值的 token 交给预先配置好的 jjwt 解析器处理。
+ * <p>
+ * 配置了非对称签名算法（jwt.signing.algorithm）时改用 JwtKeyRing 中当前的密钥签名，头部带有 kid，
+ * 其他服务可以通过 /.well-known/jwks.json 获取公钥自行验签。
+ */
+@Service
+public class JwtServiceImpl implements JwtService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    // {"alg":"HS256"} 的 Base64URL 编码，jjwt 生成的 HS256 token 的头部就是这个值
+    private static final String HEADER = "eyJhbGciOiJIUzI1NiJ9";
+
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+    // ObjectMapper 配置完成后是线程安全的
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final long defaultTtlMillis;
+
+    private final String issuer;
+
+    // 已用密钥初始化好的 Mac，doFinal 后会自动重置，可直接归还复用
+    private final InstancePool<Mac> macPool;
+
+    // 预先配置好的 jjwt 解析器，只读使用，线程安全
+    private final JwtParser fallbackParser;
+
+    // 非对称签名的密钥环，jwt.signing.algorithm 为 HS256 时不存在
+    @Autowired(required = false)
+    private JwtKeyRing jwtKeyRing;
+
+    // 启用非对称签名后是否仍接受 HS256 token（切换期间为 true，旧 token 全部过期后可关闭）
+    @Value("${jwt.signing.accept-hs256:true}")
+    private boolean acceptHs256 = true;
+
+    public JwtServiceImpl(@Value("${jwt.secret:sangeng}") String secret,
+                          @Value("${jwt.ttl:1h}") Duration ttl,
+                          @Value("${jwt.issuer:sg}") String issuer) {
+        // 与 JwtUtil.generalKey() 一致：密钥明文按 Base64 解码后作为 HMAC 密钥
+        byte[] keyBytes = Base64.getDecoder().decode(secret);
+        SecretKeySpec key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.defaultTtlMillis = ttl.toMillis();
+        this.issuer = issuer;
+        Mac prototype = newMac(key);
+        this.macPool = new InstancePool<>(() -> {
+            try {
+                return (Mac) prototype.clone();  // 复制已初始化的状态，比 getInstance + init 便宜
+            } catch (CloneNotSupportedException e) {
+                return newMac(key);
+            }
+        });
+        this.fallbackParser = Jwts.parser().setSigningKey(keyBytes);
+    }
+
+    @Override
+    public String createJWT(String subject) {
+        return createJWT(getUUID(), subject, null);
+    }
+
+    @Override
+    public String createJWT(String subject, Long ttlMillis) {
+        return createJWT(getUUID(), subject, ttlMillis);
+    }
+
+    @Override
+    public String createJWT(String id, String subject, Long ttlMillis) {
+        return createJWT(id, subject, ttlMillis, Map.of());
+    }
+
+    @Override
+    public String createJWT(String subject, Map<String, Object> claims) {
+        return createJWT(getUUID(), subject, null, claims);
+    }
+
+    private String createJWT(String id, String subject, Long ttlMillis, Map<String, Object> extraClaims) {
+        long nowMillis = System.currentTimeMillis();
+        long expMillis = nowMillis + (ttlMillis == null ? defaultTtlMillis : ttlMillis);
+
+        // 与 jjwt 相同的声明顺序和时间格式（秒）
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(Claims.ID, id);
+        claims.put(Claims.SUBJECT, subject);
+        claims.put(Claims.ISSUER, issuer);
+        claims.put(Claims.ISSUED_AT, nowMillis / 1000);
+        claims.put(Claims.EXPIRATION, expMillis / 1000);
+        claims.putAll(extraClaims);
+
+        String payload;
+        try {
+            payload = BASE64_URL_ENCODER.encodeToString(OBJECT_MAPPER.writeValueAsBytes(claims));
+        } catch (Exception e) {
+            throw new IllegalStateException("无法序列化 JWT 声明", e);
+        }
+        JwtKeyRing.SigningKey signingKey = jwtKeyRing == null ? null : jwtKeyRing.signingKey();
+        String signingInput = (signingKey == null ? HEADER : signingKey.header()) + '.' + payload;
+        byte[] input = signingInput.getBytes(StandardCharsets.US_ASCII);
+        byte[] signature;
+        if (signingKey == null) {
+            Mac mac = macPool.acquire();
+            signature = mac.doFinal(input);
+            macPool.release(mac);
+        } else {
+            signature = signingKey.sign(input);
+        }
+        return signingInput + '.' + BASE64_URL_ENCODER.encodeToString(signature);
+    }
+
+    @Override
+    public Claims parseJWT(String jwt) throws Exception {
+        int firstDot = jwt.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : jwt.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || jwt.indexOf('.', secondDot + 1) >= 0) {
+            throw new MalformedJwtException("JWT 格式错误");
+        }
+        byte[] tokenBytes = jwt.getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = BASE64_URL_DECODER.decode(jwt.substring(secondDot + 1));
+        JwtKeyRing.VerificationKey verificationKey =
+                jwtKeyRing == null ? null : jwtKeyRing.verificationKey(jwt.substring(0, firstDot));
+        if (verificationKey != null) {
+            // 非对称签名：按头部（alg + kid）找到已解析的公钥后直接验签
+            if (!verificationKey.verify(tokenBytes, secondDot, actual)) {
+                throw new SignatureException("JWT 签名校验失败");
+            }
+        } else if (jwtKeyRing != null && hasKid(jwt.substring(0, firstDot))) {
+            // 可能是其他节点刚发布、本节点尚未加载的公钥，与签名不符区分开
+            throw new JwtKeyRing.UnknownKeyException("未知的 JWT 签名密钥");
+        } else if (jwtKeyRing != null && !acceptHs256) {
+            throw new SignatureException("不接受 HS256 签名的 JWT");
+        } else if (!jwt.startsWith(HEADER) || firstDot != HEADER.length()) {
+            // 非标准头部（如带有 typ、zip 等字段）交给 jjwt 处理
+            return fallbackParser.parseClaimsJws(jwt).getBody();
+        } else {
+            // 校验签名：对 “头部.载荷” 计算 HMAC，并以常量时间与 token 中的签名比较
+            Mac mac = macPool.acquire();
+            mac.update(tokenBytes, 0, secondDot);
+            byte[] expected = mac.doFinal();
+            macPool.release(mac);
+            if (!MessageDigest.isEqual(expected, actual)) {
+                throw new SignatureException("JWT 签名校验失败");
+            }
+        }
+
+        // 解析载荷并校验时间
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map = OBJECT_MAPPER.readValue(
+                BASE64_URL_DECODER.decode(jwt.substring(firstDot + 1, secondDot)), Map.class);
+        Claims claims = new DefaultClaims(map);
+        long now = System.currentTimeMillis();
+        Date expiration = claims.getExpiration();
+        if (expiration != null && now >= expiration.getTime()) {
+            throw new ExpiredJwtException(null, claims, "JWT 已过期");
+        }
+        Date notBefore = claims.getNotBefore();
+        if (notBefore != null && now < notBefore.getTime()) {
+            throw new PrematureJwtException(null, claims, "JWT 尚未生效");
+        }
+        return claims;
+    }
+
+    /**
+     * 头部是否带有 kid，只在按头部找不到验签密钥时调用
+     */
+    private static boolean hasKid(String header) {
+        try {
+            return OBJECT_MAPPER.readTree(BASE64_URL_DECODER.decode(header)).hasNonNull("kid");
+        } catch (Exception e) {
+            return false;  // 格式错误的头部按 HS256 处理，由后续的验签拒绝
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法初始化 " + ALGORITHM, e);
+        }
+    }
+
+    /**
+     * 生成唯一的 token ID（jti）
+     */
+    private static String getUUID() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+}
@@ -2,64 +2,163 @@ package com.scholar.securitytest.service.impl;
 
 import com.scholar.securitytest.common.ResponseResult;
 import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.RefreshToken;
 import com.scholar.securitytest.domain.User;
+import com.scholar.securitytest.service.JwtService;
 import com.scholar.securitytest.service.LoginService;
-import com.scholar.securitytest.utils.JwtUtil;
-import com.scholar.securitytest.utils.RedisCache;
+import com.scholar.securitytest.service.RefreshTokenService;
+import com.scholar.securitytest.service.RolePermissionService;
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.AuthTracer;
+import com.scholar.securitytest.utils.JwtTokenCache;
+import com.scholar.securitytest.utils.LoginUserCache;
+import com.scholar.securitytest.utils.PasswordHashingExecutor;
+import com.scholar.securitytest.utils.StatelessAuthenticator;
+import com.scholar.securitytest.utils.TokenRevocationList;
+import io.micrometer.observation.Observation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class LoginServiceImpl implements LoginService {
 
     @Autowired
     private AuthenticationManager authenticationManager;  // 用于进行用户认证
     @Autowired
-    private RedisCache redisCache;  // 用于存储用户信息到Redis
+    private LoginUserCache loginUserCache;  // 用于存储用户信息到Redis和本地缓存
+    @Autowired
+    private JwtTokenCache jwtTokenCache;  // 已验证Token缓存
+    @Autowired
+    private JwtService jwtService;  // 用于生成JWT
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;  // 用于执行密码校验的专用线程池
+    @Autowired
+    private AsyncTaskExecutor loginIoExecutor;  // 认证通过后生成JWT、写入会话和刷新令牌的线程池
+    @Autowired
+    private StatelessAuthenticator statelessAuthenticator;  // 无状态模式下把用户名和权限写入JWT
+    @Autowired
+    private TokenRevocationList tokenRevocationList;  // 无状态模式下登出时吊销该用户的全部token
+    @Autowired
+    private RefreshTokenService refreshTokenService;  // 用于签发、轮换和吊销刷新令牌
+    @Autowired
+    private RolePermissionService rolePermissionService;  // 刷新令牌时按最新的角色权限快照刷新权限
+    @Autowired
+    private AuthMetrics authMetrics;  // 统计登录和刷新令牌的失败原因
+    @Autowired
+    private AuthTracer authTracer;  // 按比例采样，拆分登录各步骤的耗时
 
     @Override
-    public ResponseResult login(User user) {
+    public CompletableFuture<ResponseResult> login(User user) {
+        Observation trace = authTracer.root("auth.login");
 
         // 1. 封装Authentication对象，用于携带用户名和密码进行认证
         UsernamePasswordAuthenticationToken authenticationToken =
                 new UsernamePasswordAuthenticationToken(user.getUserName(), user.getPassword());
 
-        // 2. 通过AuthenticationManager的authenticate方法进行认证
-        Authentication authenticated = authenticationManager.authenticate(authenticationToken);
+        // 2. 在密码哈希线程池中通过AuthenticationManager的authenticate方法进行认证（BCrypt校验）
+        CompletableFuture<Authentication> authenticated;
+        try {
+            // 认证步骤在线程池中执行，其中的数据库查询（db.user-roles 等）挂在该步骤下
+            authenticated = passwordHashingExecutor.submit(() -> authTracer.trace(trace, "authenticate",
+                    () -> authenticationManager.authenticate(authenticationToken)));
+        } catch (RejectedExecutionException e) {
+            // 线程池已满，立即拒绝，避免登录请求堆积
+            authMetrics.failure(AuthMetrics.Failure.LOGIN_REJECTED);
+            trace.lowCardinalityKeyValue("outcome", "rejected").stop();
+            return CompletableFuture.completedFuture(new ResponseResult(503, "登录请求过多，请稍后重试"));
+        }
+
+        // 认证通过后的步骤包含 Redis 往返，切换到 I/O 线程池执行，密码哈希线程立即去处理下一个登录请求
+        return authenticated.thenApplyAsync(authentication -> {
+            // 3. 获取认证后的用户信息
+            LoginUser loginUser = (LoginUser) authentication.getPrincipal();
+            String userId = loginUser.getUser().getId().toString();  // 获取用户ID
 
-        // 3. 获取认证后的用户信息
-        LoginUser loginUser = (LoginUser) authenticated.getPrincipal();
-        String userId = loginUser.getUser().getId().toString();  // 获取用户ID
+            // 4. 认证通过后生成JWT令牌
+            String jwt = authTracer.trace(trace, "jwt.create",
+                    () -> jwtService.createJWT(userId, statelessAuthenticator.claimsOf(loginUser)));
 
-        // 4. 认证通过后生成JWT令牌
-        String jwt = JwtUtil.createJWT(userId);
+            // 5. 将用户信息存入Redis缓存，key为"login:userId"，有效期由会话超时配置决定
+            loginUser.setLoginTime(System.currentTimeMillis());
+            authTracer.run(trace, "session.write", () -> loginUserCache.put(userId, loginUser));
 
-        // 5. 将用户信息存入Redis缓存，key为"userId"
-        redisCache.setCacheObject("login:" + userId, loginUser);
+            // 6. 返回包含JWT和刷新令牌的响应
+            HashMap<Object, Object> response = new HashMap<>();
+            response.put("token", jwt);
+            response.put("refreshToken",
+                    authTracer.trace(trace, "refresh.issue", () -> refreshTokenService.issue(userId)).getToken());
+            return new ResponseResult(200, "登录成功", response);
+        }, loginIoExecutor).whenComplete((result, e) -> {
+            // 认证失败的异常由 Spring Security 转为 401 响应，这里只做统计
+            if (e != null && (e instanceof AuthenticationException || e.getCause() instanceof AuthenticationException)) {
+                authMetrics.failure(AuthMetrics.Failure.BAD_CREDENTIALS);
+            }
+            if (e != null) {
+                trace.error(e);
+            }
+            trace.lowCardinalityKeyValue("outcome", e == null ? "success" : "failure").stop();
+        });
+    }
+
+    @Override
+    public CompletableFuture<ResponseResult> refresh(String refreshToken) {
+        // 1. 作废旧的刷新令牌并轮换为新令牌，不查询数据库，也不校验密码
+        RefreshToken rotated = refreshTokenService.rotate(refreshToken);
+        if (rotated == null) {
+            authMetrics.failure(AuthMetrics.Failure.REFRESH_INVALID);
+            return CompletableFuture.completedFuture(new ResponseResult(401, "刷新令牌无效，请重新登录"));
+        }
+        String userId = rotated.getUserId();
+
+        // 2. 会话已登出、被下线或超过绝对超时的，需要重新登录
+        LoginUser loginUser = loginUserCache.get(userId);
+        if (loginUser == null || !loginUserCache.touch(userId, loginUser)) {
+            authMetrics.failure(AuthMetrics.Failure.REFRESH_INVALID);
+            return CompletableFuture.completedFuture(new ResponseResult(401, "登录已失效，请重新登录"));
+        }
+
+        // 3. 只有角色权限快照变化后才重新计算权限，并写回会话
+        LoginUser refreshed = rolePermissionService.refreshPermissions(loginUser);
+        if (refreshed != loginUser) {
+            loginUserCache.put(userId, refreshed);
+        }
 
-        // 6. 返回包含JWT的响应
         HashMap<Object, Object> response = new HashMap<>();
-        response.put("token", jwt);
-        return new ResponseResult(200, "登录成功", response);
+        response.put("token", jwtService.createJWT(userId, statelessAuthenticator.claimsOf(refreshed)));
+        response.put("refreshToken", rotated.getToken());
+        return CompletableFuture.completedFuture(new ResponseResult(200, "刷新成功", response));
     }
 
     @Override
-    public ResponseResult logout() {
-        // 获取SecurityContextHolder中的用户认证信息
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        LoginUser loginUser = (LoginUser) authentication.getPrincipal();  // 获取当前认证的用户
+    public CompletableFuture<ResponseResult> logout(Authentication authentication) {
+        LoginUser loginUser = (LoginUser) authentication.getPrincipal();
         Long userId = loginUser.getUser().getId();  // 获取当前用户的ID
 
-        // 删除redis中的用户信息，缓存失效
-        redisCache.deleteObject("login:" + userId);  // 删除Redis中的用户缓存
+        // 无状态模式下请求不读取会话，需要吊销该用户的全部token，与删除会话的效果一致
+        if (statelessAuthenticator.isEnabled()) {
+            tokenRevocationList.revokeSubjects(List.of(userId.toString()));
+        }
+
+        // 吊销该用户的全部刷新令牌，否则登出后仍可换取新的 token
+        refreshTokenService.revokeUsers(List.of(userId.toString()));
+
+        // 删除redis中的用户信息，并通知所有节点淘汰本地缓存
+        loginUserCache.evict(userId.toString());
+        jwtTokenCache.invalidateSubject(userId.toString());  // 淘汰该用户已验证的Token
 
         // 返回退出成功的响应
-        return new ResponseResult(200, "退出成功");
+        return CompletableFuture.completedFuture(new ResponseResult(200, "退出成功"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.scholar.securitytest.service.impl;
+
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.OnlineSession;
+import com.scholar.securitytest.service.OnlineSessionService;
+import com.scholar.securitytest.service.RefreshTokenService;
+import com.scholar.securitytest.utils.LoginUserCache;
+import com.scholar.securitytest.utils.RedisCache;
+import com.scholar.securitytest.utils.StatelessAuthenticator;
+import com.scholar.securitytest.utils.TokenRevocationList;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class OnlineSessionServiceImpl implements OnlineSessionService {
+
+    // 会话键的匹配模式
+    private static final String SESSION_PATTERN = LoginUserCache.KEY_PREFIX + "*";
+
+    // 批量下线时每批删除的会话数
+    private static final int EVICT_BATCH_SIZE = 500;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private LoginUserCache loginUserCache;
+
+    @Autowired
+    private StatelessAuthenticator statelessAuthenticator;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Value("${redis.scan.count:500}")
+    private long scanCount;
+
+    @Override
+    public long count() {
+        try (Stream<String> keys = redisCache.scan(SESSION_PATTERN, scanCount)) {
+            return keys.count();
+        }
+    }
+
+    @Override
+    public List<OnlineSession> page(long skip, int limit) {
+        List<String> keys;
+        try (Stream<String> stream = redisCache.scan(SESSION_PATTERN, scanCount)) {
+            keys = stream.skip(skip).limit(limit).toList();
+        }
+
+        // 一条 MGET 读取本页的会话，不经过本地缓存，避免管理端查询挤掉活跃用户的本地副本
+        List<LoginUser> loginUsers = redisCache.getMultiCacheObject(keys);
+        List<OnlineSession> sessions = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            LoginUser loginUser = loginUsers == null ? null : loginUsers.get(i);
+            if (loginUser == null || loginUser.getUser() == null) {
+                continue;  // 扫描之后已过期或被删除
+            }
+            String userId = keys.get(i).substring(LoginUserCache.KEY_PREFIX.length());
+            sessions.add(new OnlineSession(userId, loginUser.getUser().getUserName(),
+                    loginUser.getUser().getNickName(), loginUser.getLoginTime()));
+        }
+        return sessions;
+    }
+
+    @Override
+    public long evict(Collection<String> userIds) {
+        return evictBatch(userIds);
+    }
+
+    @Override
+    public long evictAll() {
+        long evicted = 0;
+        List<String> batch = new ArrayList<>(EVICT_BATCH_SIZE);
+        // SCAN 允许在遍历期间删除键，边扫描边分批删除，内存占用与会话总数无关
+        try (Stream<String> keys = redisCache.scan(SESSION_PATTERN, scanCount)) {
+            Iterator<String> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next().substring(LoginUserCache.KEY_PREFIX.length()));
+                if (batch.size() == EVICT_BATCH_SIZE) {
+                    evicted += evictBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            evicted += evictBatch(batch);
+        }
+        return evicted;
+    }
+
+    private long evictBatch(Collection<String> userIds) {
+        // 无状态模式下请求不读取会话，还需要吊销这些用户已签发的token
+        if (statelessAuthenticator.isEnabled()) {
+            tokenRevocationList.revokeSubjects(userIds);
+        }
+        // 刷新令牌不依赖会话，不吊销的话下线的用户仍可换取新的 token
+        refreshTokenService.revokeUsers(userIds);
+        return loginUserCache.evictAll(userIds);
+    }
+}
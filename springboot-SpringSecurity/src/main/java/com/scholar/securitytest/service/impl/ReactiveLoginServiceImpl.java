@@ -0,0 +1,176 @@
+package com.scholar.securitytest.service.impl;
+
+import com.scholar.securitytest.common.ResponseResult;
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.RefreshToken;
+import com.scholar.securitytest.domain.User;
+import com.scholar.securitytest.service.JwtService;
+import com.scholar.securitytest.service.LoginService;
+import com.scholar.securitytest.service.RefreshTokenService;
+import com.scholar.securitytest.service.RolePermissionService;
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.AuthTracer;
+import com.scholar.securitytest.utils.JwtTokenCache;
+import com.scholar.securitytest.utils.LoginUserCache;
+import com.scholar.securitytest.utils.ReactiveLoginUserCache;
+import com.scholar.securitytest.utils.StatelessAuthenticator;
+import com.scholar.securitytest.utils.TokenRevocationList;
+import io.micrometer.observation.Observation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 响应式技术栈的登录服务，流程与 LoginServiceImpl 一致，全程不阻塞事件循环线程：
+ * 用户查询在 boundedElastic 线程池中执行，密码校验在密码哈希线程池中执行，会话通过 ReactiveRedisTemplate 写入。
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLoginServiceImpl implements LoginService {
+
+    @Autowired
+    private ReactiveAuthenticationManager reactiveAuthenticationManager;  // 用于进行用户认证
+    @Autowired
+    private ReactiveLoginUserCache reactiveLoginUserCache;  // 用于存储用户信息到Redis和本地缓存
+    @Autowired
+    private LoginUserCache loginUserCache;  // 登记会话被访问（只写本地，不阻塞）
+    @Autowired
+    private JwtTokenCache jwtTokenCache;  // 已验证Token缓存
+    @Autowired
+    private JwtService jwtService;  // 用于生成JWT
+    @Autowired
+    private StatelessAuthenticator statelessAuthenticator;  // 无状态模式下把用户名和权限写入JWT
+    @Autowired
+    private TokenRevocationList tokenRevocationList;  // 无状态模式下登出时吊销该用户的全部token
+    @Autowired
+    private RefreshTokenService refreshTokenService;  // 用于签发、轮换和吊销刷新令牌
+    @Autowired
+    private RolePermissionService rolePermissionService;  // 刷新令牌时按最新的角色权限快照刷新权限
+    @Autowired
+    private AuthMetrics authMetrics;  // 统计登录和刷新令牌的失败原因
+    @Autowired
+    private AuthTracer authTracer;  // 按比例采样，拆分登录各步骤的耗时
+
+    @Override
+    public CompletableFuture<ResponseResult> login(User user) {
+        UsernamePasswordAuthenticationToken authenticationToken =
+                UsernamePasswordAuthenticationToken.unauthenticated(user.getUserName(), user.getPassword());
+
+        // 各步骤在不同线程中执行，异步步骤在结束时手动结束；用户查询在 boundedElastic 中执行，不单独拆分
+        Observation trace = authTracer.root("auth.login");
+        Observation authenticateStep = authTracer.start(trace, "authenticate");
+        return reactiveAuthenticationManager.authenticate(authenticationToken)
+                .doFinally(signal -> authenticateStep.stop())
+                .flatMap(authentication -> {
+                    LoginUser loginUser = (LoginUser) authentication.getPrincipal();
+                    String userId = loginUser.getUser().getId().toString();
+                    String jwt = authTracer.trace(trace, "jwt.create",
+                            () -> jwtService.createJWT(userId, statelessAuthenticator.claimsOf(loginUser)));
+                    loginUser.setLoginTime(System.currentTimeMillis());
+
+                    HashMap<Object, Object> response = new HashMap<>();
+                    response.put("token", jwt);
+                    // 刷新令牌通过 StringRedisTemplate 写入，是阻塞调用，在 boundedElastic 中执行
+                    Mono<RefreshToken> issued = Mono.fromCallable(
+                                    () -> authTracer.trace(trace, "refresh.issue", () -> refreshTokenService.issue(userId)))
+                            .subscribeOn(Schedulers.boundedElastic());
+                    Observation sessionStep = authTracer.start(trace, "session.write");
+                    return reactiveLoginUserCache.put(userId, loginUser)
+                            .doFinally(signal -> sessionStep.stop())
+                            .then(issued)
+                            .map(refreshToken -> {
+                                response.put("refreshToken", refreshToken.getToken());
+                                return new ResponseResult(200, "登录成功", response);
+                            });
+                })
+                // 密码哈希线程池已满，立即拒绝，避免登录请求堆积
+                .onErrorResume(RejectedExecutionException.class, e -> {
+                    authMetrics.failure(AuthMetrics.Failure.LOGIN_REJECTED);
+                    return Mono.just(new ResponseResult(503, "登录请求过多，请稍后重试"));
+                })
+                // 与 Servlet 技术栈中由 AuthenticationEntryPointImpl 返回的内容一致
+                .onErrorResume(AuthenticationException.class, e -> {
+                    authMetrics.failure(AuthMetrics.Failure.BAD_CREDENTIALS);
+                    return Mono.just(new ResponseResult(HttpStatus.UNAUTHORIZED.value(), "认证失败，请重新登录"));
+                })
+                .doOnNext(result -> trace.lowCardinalityKeyValue("outcome", result.getCode() == 200 ? "success" : "failure"))
+                .doOnError(trace::error)
+                .doFinally(signal -> trace.stop())
+                .toFuture();
+    }
+
+    @Override
+    public CompletableFuture<ResponseResult> refresh(String refreshToken) {
+        // 作废旧的刷新令牌并轮换为新令牌（阻塞调用，在 boundedElastic 中执行），不查询数据库，也不校验密码
+        return Mono.fromCallable(() -> Optional.ofNullable(refreshTokenService.rotate(refreshToken)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(rotated -> rotated.map(this::refresh)
+                        .orElseGet(() -> {
+                            authMetrics.failure(AuthMetrics.Failure.REFRESH_INVALID);
+                            return Mono.just(new ResponseResult(401, "刷新令牌无效，请重新登录"));
+                        }))
+                .toFuture();
+    }
+
+    private Mono<ResponseResult> refresh(RefreshToken rotated) {
+        String userId = rotated.getUserId();
+        return reactiveLoginUserCache.get(userId)
+                // 会话已登出、被下线或超过绝对超时的，需要重新登录
+                .filter(loginUser -> loginUserCache.touch(userId, loginUser))
+                .flatMap(loginUser -> {
+                    // 只有角色权限快照变化后才重新计算权限，并写回会话
+                    LoginUser refreshed = rolePermissionService.refreshPermissions(loginUser);
+                    Mono<Void> saved = Mono.empty();
+                    if (refreshed != loginUser) {
+                        saved = reactiveLoginUserCache.put(userId, refreshed);
+                    }
+                    HashMap<Object, Object> response = new HashMap<>();
+                    response.put("token", jwtService.createJWT(userId, statelessAuthenticator.claimsOf(refreshed)));
+                    response.put("refreshToken", rotated.getToken());
+                    return saved.thenReturn(new ResponseResult(200, "刷新成功", response));
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    authMetrics.failure(AuthMetrics.Failure.REFRESH_INVALID);
+                    return new ResponseResult(401, "登录已失效，请重新登录");
+                }));
+    }
+
+    @Override
+    public CompletableFuture<ResponseResult> logout(Authentication authentication) {
+        LoginUser loginUser = (LoginUser) authentication.getPrincipal();
+        String userId = loginUser.getUser().getId().toString();
+
+        // 无状态模式下请求不读取会话，需要吊销该用户的全部token，与删除会话的效果一致（写入 Stream 是阻塞调用，在 boundedElastic 中执行）
+        Mono<Void> revoke = Mono.empty();
+        if (statelessAuthenticator.isEnabled()) {
+            revoke = Mono.fromRunnable(() -> tokenRevocationList.revokeSubjects(List.of(userId)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .then();
+        }
+
+        // 吊销该用户的全部刷新令牌，否则登出后仍可换取新的 token
+        Mono<Void> revokeRefresh = Mono.fromRunnable(() -> refreshTokenService.revokeUsers(List.of(userId)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+
+        // 删除redis中的用户信息，并通知所有节点淘汰本地缓存
+        return revoke.then(revokeRefresh)
+                .then(reactiveLoginUserCache.evict(userId))
+                .then(Mono.fromRunnable(() -> jwtTokenCache.invalidateSubject(userId)))  // 淘汰该用户已验证的Token
+                .thenReturn(new ResponseResult(200, "退出成功"))
+                .toFuture();
+    }
+}
@@ -0,0 +1,48 @@
+package com.scholar.securitytest.service.impl;
+
+import com.scholar.securitytest.utils.UsernameBloomFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 响应式技术栈的用户查询
+ * MyBatis-Plus 基于阻塞的 JDBC，这里把 UserDetailsServiceImpl 的查询放到 boundedElastic 线程池中执行，
+ * 避免阻塞事件循环线程。
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserDetailsServiceImpl implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UsernameBloomFilter usernameBloomFilter;
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        // 用户名一定不存在时在事件循环线程上直接拒绝，不切换到 boundedElastic
+        if (!usernameBloomFilter.mightExist(username)) {
+            return Mono.error(new InternalAuthenticationServiceException("用户名或密码错误"));
+        }
+        return Mono.fromCallable(() -> userDetailsService.loadUserByUsername(username))
+                .subscribeOn(Schedulers.boundedElastic())
+                // 与 DaoAuthenticationProvider 一致，把查询中的其他异常包装为认证异常
+                .onErrorMap(e -> !(e instanceof AuthenticationException),
+                        e -> new InternalAuthenticationServiceException(e.getMessage(), e));
+    }
+
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails user, String newPassword) {
+        return Mono.fromCallable(() -> userDetailsService.updatePassword(user, newPassword))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,171 @@
+package com.scholar.securitytest.service.impl;
+
+import com.scholar.securitytest.domain.RefreshToken;
+import com.scholar.securitytest.service.RefreshTokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 基于 Redis 的刷新令牌服务
+ * <ul>
+ *     <li>"refresh:token:摘要" → "家族ID:用户ID"，有效期为家族剩余的有效期</li>
+ *     <li>"refresh:used:摘要" → 家族ID，已轮换的令牌，用于发现重复使用</li>
+ *     <li>"refresh:family:家族ID" → 用户ID，删除即吊销整个家族</li>
+ *     <li>"refresh:user:用户ID" → 该用户的家族ID集合，登出或强制下线时据此吊销全部家族</li>
+ * </ul>
+ * 键前缀不使用 "login:"，避免被在线会话的 SCAN 匹配到。
+ */
+@Slf4j
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final String TOKEN_PREFIX = "refresh:token:";
+    private static final String USED_PREFIX = "refresh:used:";
+    private static final String FAMILY_PREFIX = "refresh:family:";
+    private static final String USER_PREFIX = "refresh:user:";
+
+    // 脚本返回字符串列表，由 StringRedisTemplate 的序列化器逐个反序列化
+    @SuppressWarnings("unchecked")
+    private static final Class<List<String>> STRING_LIST = (Class<List<String>>) (Class<?>) List.class;
+
+    // 轮换脚本：KEYS[1] 旧令牌，KEYS[2] 旧令牌的已使用标记，KEYS[3] 新令牌；ARGV[1] 家族键前缀
+    // 家族键由令牌的值得出，无法预先声明，只适用于单节点 Redis
+    private static final RedisScript<List<String>> ROTATE_SCRIPT = new DefaultRedisScript<>("""
+            local value = redis.call('GET', KEYS[1])
+            if not value then
+                local family = redis.call('GET', KEYS[2])
+                if family then
+                    redis.call('DEL', ARGV[1] .. family)
+                    return {'reused', family}
+                end
+                return {'invalid'}
+            end
+            redis.call('DEL', KEYS[1])
+            local family = string.sub(value, 1, string.find(value, ':', 1, true) - 1)
+            local ttl = redis.call('PTTL', ARGV[1] .. family)
+            if ttl <= 0 then
+                return {'invalid'}
+            end
+            redis.call('SET', KEYS[2], family, 'PX', ttl)
+            redis.call('SET', KEYS[3], value, 'PX', ttl)
+            return {'rotated', value}
+            """, STRING_LIST);
+
+    // 吊销脚本：KEYS 为用户的家族集合；ARGV[1] 家族键前缀。返回删除的家族数
+    // 集合中可能残留已过期的家族，DEL 不存在的键不计数
+    private static final RedisScript<Long> REVOKE_SCRIPT = new DefaultRedisScript<>("""
+            local revoked = 0
+            for _, key in ipairs(KEYS) do
+                for _, family in ipairs(redis.call('SMEMBERS', key)) do
+                    revoked = revoked + redis.call('DEL', ARGV[1] .. family)
+                end
+                redis.call('DEL', key)
+            end
+            return revoked
+            """, Long.class);
+
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    // 家族的有效期，从登录开始计算
+    @Value("${jwt.refresh.ttl:12h}")
+    private Duration ttl;
+
+    @Override
+    public RefreshToken issue(String userId) {
+        String familyId = UUID.randomUUID().toString().replace("-", "");
+        String token = newToken();
+        long ttlMillis = ttl.toMillis();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            Expiration expiration = Expiration.milliseconds(ttlMillis);
+            stringConnection.set(FAMILY_PREFIX + familyId, userId, expiration, SetOption.upsert());
+            stringConnection.set(TOKEN_PREFIX + digest(token), familyId + ":" + userId, expiration, SetOption.upsert());
+            // 集合的有效期随最近一次登录延长，不早于其中任何一个家族过期
+            stringConnection.sAdd(USER_PREFIX + userId, familyId);
+            stringConnection.pExpire(USER_PREFIX + userId, ttlMillis);
+            return null;
+        });
+        return new RefreshToken(token, userId, familyId);
+    }
+
+    @Override
+    public RefreshToken rotate(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+        String digest = digest(token);
+        String next = newToken();
+        List<String> result = stringRedisTemplate.execute(ROTATE_SCRIPT,
+                List.of(TOKEN_PREFIX + digest, USED_PREFIX + digest, TOKEN_PREFIX + digest(next)), FAMILY_PREFIX);
+        if (result == null || result.isEmpty()) {
+            return null;
+        }
+        switch (result.get(0)) {
+            case "rotated" -> {
+                String value = result.get(1);
+                int separator = value.indexOf(':');
+                return new RefreshToken(next, value.substring(separator + 1), value.substring(0, separator));
+            }
+            case "reused" -> {
+                log.warn("刷新令牌被重复使用，已吊销令牌家族 {}", result.get(1));
+                return null;
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public long revokeUsers(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        List<String> keys = userIds.stream().map(userId -> USER_PREFIX + userId).toList();
+        Long revoked = stringRedisTemplate.execute(REVOKE_SCRIPT, keys, FAMILY_PREFIX);
+        return revoked == null ? 0 : revoked;
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return BASE64_URL_ENCODER.encodeToString(bytes);
+    }
+
+    /**
+     * Redis 中只保存令牌的摘要，泄露 Redis 数据也无法得到可用的令牌
+     */
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return BASE64_URL_ENCODER.encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
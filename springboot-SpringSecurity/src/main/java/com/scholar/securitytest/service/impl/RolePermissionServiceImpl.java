@@ -0,0 +1,248 @@
+package com.scholar.securitytest.service.impl;
+
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.RolePermission;
+import com.scholar.securitytest.mapper.MenuMapper;
+import com.scholar.securitytest.service.RolePermissionService;
+import com.scholar.securitytest.utils.AuthorityRegistry;
+import com.scholar.securitytest.utils.PermissionClaimCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Service
+public class RolePermissionServiceImpl implements RolePermissionService, MessageListener {
+
+    // 快照重建通知的频道，消息内容为发布者重建后的版本
+    public static final String REBUILD_CHANNEL = "perm:rebuild";
+
+    @Autowired
+    private MenuMapper menuMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    // 重建时串行执行，读取时无锁
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    @Override
+    public List<String> permissionsOf(Collection<Long> roleIds) {
+        return loadedSnapshot().permissionsOf(roleIds);
+    }
+
+    @Override
+    public String version() {
+        Snapshot current = snapshot;
+        return current == null ? null : current.version;
+    }
+
+    @Override
+    public String rebuild() {
+        rebuildLock.lock();
+        try {
+            List<RolePermission> rows = menuMapper.selectRolePermissions();
+            Snapshot rebuilt = Snapshot.of(rows);
+            // 新出现的权限先注册，在本进程内分配稠密的权限ID
+            AuthorityRegistry.registerAll(rebuilt.allPermissions);
+            snapshot = rebuilt;
+            log.info("角色权限快照已加载：{} 个角色，版本 {}", rebuilt.permissionsByRole.size(), rebuilt.version);
+            return rebuilt.version;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @Override
+    public String rebuildAndBroadcast() {
+        String version = rebuild();
+        try {
+            stringRedisTemplate.convertAndSend(REBUILD_CHANNEL, version);
+        } catch (DataAccessException e) {
+            // 通知失败时其他节点仍使用旧快照，可稍后再次触发
+            log.warn("角色权限快照重建通知发送失败：{}", e.getMessage());
+        }
+        return version;
+    }
+
+    @Override
+    public LoginUser refreshPermissions(LoginUser loginUser) {
+        Snapshot current = snapshot;
+        // 快照未加载、旧会话没有角色信息、或版本一致时无需刷新
+        if (current == null || loginUser.getRoleIds() == null
+                || current.version.equals(loginUser.getPermVersion())) {
+            return loginUser;
+        }
+        LoginUser refreshed = new LoginUser(loginUser.getUser(), current.permissionsOf(loginUser.getRoleIds()));
+        refreshed.setRoleIds(loginUser.getRoleIds());
+        refreshed.setPermVersion(current.version);
+        refreshed.setLoginTime(loginUser.getLoginTime());  // 保留登录时间，绝对超时仍从登录开始计算
+        return refreshed;
+    }
+
+    @Override
+    public String encodePermissions(List<String> permissions) {
+        Snapshot current = snapshot;
+        return current == null ? null : current.encode(permissions);
+    }
+
+    @Override
+    public List<String> decodePermissions(String encoded, String version) {
+        Snapshot current = snapshot;
+        if (current == null || !current.version.equals(version)) {
+            return null;
+        }
+        return current.decode(encoded);
+    }
+
+    /**
+     * 收到其他节点（或本节点）的重建通知，版本不同时重新加载
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String version = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (version.equals(version())) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("角色权限快照重建失败：{}", e.getMessage());
+        }
+    }
+
+    // 获取快照，启动时数据库不可用导致未加载的，在首次使用时加载
+    private Snapshot loadedSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * 不可变的角色权限快照
+     */
+    private static final class Snapshot {
+
+        // 解码结果缓存的上限，正常情况下不同的权限声明数与角色组合数相当
+        private static final int MAX_DECODED = 10_000;
+
+        private final Map<Long, List<String>> permissionsByRole;
+
+        // 按查询结果的顺序排列的全部权限，用于预先注册权限ID
+        private final List<String> allPermissions;
+
+        // 权限标识 → 菜单ID（多个菜单使用同一权限标识时取最小的菜单ID），以及反向映射
+        private final Map<String, Integer> menuIdByPermission;
+        private final Map<Integer, String> permissionByMenuId;
+
+        // 权限声明 → 解码后的权限标识，相同的声明共享同一个列表
+        private final Map<String, List<String>> decoded = new ConcurrentHashMap<>();
+
+        private final String version;
+
+        private Snapshot(Map<Long, List<String>> permissionsByRole, List<String> allPermissions,
+                         Map<String, Integer> menuIdByPermission, String version) {
+            this.permissionsByRole = permissionsByRole;
+            this.allPermissions = allPermissions;
+            this.menuIdByPermission = menuIdByPermission;
+            Map<Integer, String> permissionByMenuId = new HashMap<>();
+            menuIdByPermission.forEach((permission, menuId) -> permissionByMenuId.put(menuId, permission));
+            this.permissionByMenuId = Map.copyOf(permissionByMenuId);
+            this.version = version;
+        }
+
+        // rows 已按角色ID、菜单ID排序，内容相同时计算出的版本相同
+        static Snapshot of(List<RolePermission> rows) {
+            Map<Long, List<String>> permissionsByRole = new HashMap<>();
+            Set<String> allPermissions = new LinkedHashSet<>();
+            Map<String, Integer> menuIdByPermission = new HashMap<>();
+            MessageDigest digest = sha256();
+            for (RolePermission row : rows) {
+                permissionsByRole.computeIfAbsent(row.getRoleId(), id -> new ArrayList<>()).add(row.getPerms());
+                allPermissions.add(row.getPerms());
+                Long menuId = row.getMenuId();
+                if (menuId != null && menuId >= 0 && menuId <= Integer.MAX_VALUE) {
+                    menuIdByPermission.merge(row.getPerms(), menuId.intValue(), Math::min);
+                }
+                // 菜单ID决定权限声明的编码，也计入版本
+                digest.update((row.getRoleId() + ":" + row.getMenuId() + ":" + row.getPerms() + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            permissionsByRole.replaceAll((id, permissions) -> List.copyOf(permissions));
+            String version = HexFormat.of().formatHex(digest.digest(), 0, 8);
+            return new Snapshot(Map.copyOf(permissionsByRole), List.copyOf(allPermissions),
+                    Map.copyOf(menuIdByPermission), version);
+        }
+
+        String encode(List<String> permissions) {
+            int[] ids = new int[permissions.size()];
+            for (int i = 0; i < ids.length; i++) {
+                Integer menuId = menuIdByPermission.get(permissions.get(i));
+                if (menuId == null) {
+                    return null;
+                }
+                ids[i] = menuId;
+            }
+            return PermissionClaimCodec.encode(ids);
+        }
+
+        List<String> decode(String encoded) {
+            List<String> permissions = decoded.get(encoded);
+            if (permissions != null) {
+                return permissions;
+            }
+            int[] ids = PermissionClaimCodec.decode(encoded);
+            List<String> result = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                String permission = permissionByMenuId.get(id);
+                if (permission == null) {
+                    throw new IllegalArgumentException("权限声明中的菜单ID不在快照中：" + id);
+                }
+                result.add(permission);
+            }
+            permissions = List.copyOf(result);
+            if (decoded.size() < MAX_DECODED) {
+                decoded.putIfAbsent(encoded, permissions);
+            }
+            return permissions;
+        }
+
+        List<String> permissionsOf(Collection<Long> roleIds) {
+            // 按角色ID排序后合并，相同角色组合得到相同顺序的列表，可共享 AuthorityRegistry 中的权限集合
+            Set<String> permissions = new LinkedHashSet<>();
+            roleIds.stream().sorted().forEach(id -> permissions.addAll(permissionsByRole.getOrDefault(id, List.of())));
+            return List.copyOf(permissions);
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
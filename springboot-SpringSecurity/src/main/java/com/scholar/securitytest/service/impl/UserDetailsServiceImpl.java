@@ -1,47 +1,99 @@
 package com.scholar.securitytest.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.scholar.securitytest.domain.LoginUser;
 import com.scholar.securitytest.domain.User;
-import com.scholar.securitytest.mapper.MenuMapper;
+import com.scholar.securitytest.domain.UserRoles;
 import com.scholar.securitytest.mapper.UserMapper;
+import com.scholar.securitytest.service.RolePermissionService;
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.AuthTracer;
+import com.scholar.securitytest.utils.UsernameBloomFilter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
+@Slf4j
 @Service // 声明为服务层组件
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserMapper userMapper; // 注入 UserMapper，用于与数据库交互
 
     @Autowired
-    private MenuMapper menuMapper;
+    private RolePermissionService rolePermissionService; // 角色权限快照，由角色ID合并出用户权限
+
+    @Autowired
+    private UsernameBloomFilter usernameBloomFilter; // 已存在用户名的布隆过滤器，一定不存在的用户名不查询数据库
+
+    @Autowired
+    private AuthMetrics authMetrics; // 记录用户和权限的查询耗时
+
+    @Autowired
+    private AuthTracer authTracer; // 采样的登录请求中拆分数据库查询和权限合并的耗时
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // 根据用户名查询数据库中的用户信息
-        LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(User::getUserName, username);
-        User user = userMapper.selectOne(queryWrapper);
+        long start = System.nanoTime();
+        try {
+            return loadWithPermissions(username);
+        } finally {
+            authMetrics.recordUserLoad(start);
+        }
+    }
+
+    private LoginUser loadWithPermissions(String username) {
+        // 用户名一定不存在时直接拒绝，与查询不到用户的结果相同
+        if (!usernameBloomFilter.mightExist(username)) {
+            throw new RuntimeException("用户名或密码错误");
+        }
+
+        // 根据用户名一次性查询用户信息及其角色
+        UserRoles userRoles = authTracer.trace("db.user-roles", () -> userMapper.selectWithRolesByUserName(username));
 
         // 如果用户不存在，抛出异常
-        if (Objects.isNull(user)) {
+        if (Objects.isNull(userRoles)) {
             throw new RuntimeException("用户名或密码错误");
         }
+        User user = userRoles.getUser();
 
-        // TODO: 如果需要权限信息，可在此处查询并封装
-//        List<String> permissions = new ArrayList<>(Arrays.asList("test","admin"));
-        List<String> permissions = menuMapper.selectPermsByUserId(user.getId());
+        // 由内存中的角色权限快照合并出用户权限，先取版本，保证权限不会比记录的版本更旧
+        String permVersion = rolePermissionService.version();
+        List<String> permissions = authTracer.trace("permission.merge",
+                () -> rolePermissionService.permissionsOf(userRoles.getRoleIds()));
 
         // 将用户信息封装为自定义的 UserDetails 实现类
-        return new LoginUser(user,permissions);
+        LoginUser loginUser = new LoginUser(user,permissions);
+        loginUser.setRoleIds(userRoles.getRoleIds());
+        loginUser.setPermVersion(permVersion);
+        return loginUser;
+    }
+
+    /**
+     * 登录成功后，如果存储的密码哈希需要升级（强度与目标不一致或缺少编码前缀），
+     * Spring Security 会用新的哈希调用此方法，将其写回数据库。
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        LoginUser loginUser = (LoginUser) user;
+        Long userId = loginUser.getUser().getId();
+        try {
+            LambdaUpdateWrapper<User> updateWrapper = new LambdaUpdateWrapper<>();
+            updateWrapper.eq(User::getId, userId).set(User::getPassword, newPassword);
+            authTracer.trace("db.password-upgrade", () -> userMapper.update(null, updateWrapper));
+            loginUser.getUser().setPassword(newPassword);
+        } catch (DataAccessException e) {
+            // 写回失败不影响本次登录，下次登录时会再次尝试
+            log.warn("用户 {} 的密码哈希升级失败：{}", userId, e.getMessage());
+        }
+        return loginUser;
     }
-}
\ No newline at end of file
+}
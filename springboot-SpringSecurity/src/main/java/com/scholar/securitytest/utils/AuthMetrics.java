@@ -0,0 +1,194 @@
+package com.scholar.securitytest.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证链路的指标，通过管理端口（management.server.port）上的 /actuator/prometheus 暴露
+ * 所有计时器和计数器在启动时注册好，记录时只是一次原子累加，请求路径上不查找、不创建指标。
+ * <ul>
+ *     <li>auth.filter：JWT 认证过滤器自身的耗时（不含后续过滤器和控制器），按 outcome 区分，发布百分位直方图</li>
+ *     <li>auth.jwt.verify：token 校验耗时，cache=miss 即完整的解析和验签耗时</li>
+ *     <li>auth.session.fetch：从 Redis 读取会话的耗时，result=absent 为会话不存在</li>
+ *     <li>auth.password.bcrypt：单次 BCrypt 校验耗时</li>
+ *     <li>auth.user.load：登录时查询用户、角色并合并权限的耗时</li>
+ *     <li>auth.failures：认证失败次数，按 reason 区分</li>
+ *     <li>auth.rejections：认证失败处理器（401）和授权失败处理器（403）返回的次数</li>
+ * </ul>
+ * 本地缓存的命中情况见 auth.cache.requests（MetricsConfig 中注册）。
+ */
+@Component
+public class AuthMetrics {
+
+    /**
+     * 认证过滤器的结果
+     */
+    public enum Outcome {
+        ANONYMOUS, AUTHENTICATED, REJECTED
+    }
+
+    /**
+     * 认证失败的原因
+     */
+    public enum Failure {
+        TOKEN_INVALID,  // 解析或验签失败
+        TOKEN_REVOKED,  // 无状态模式下 token 已被吊销
+        SESSION_ABSENT,  // 会话不存在（已登出、被下线或已过期）
+        SESSION_EXPIRED,  // 会话超过绝对超时
+        BAD_CREDENTIALS,  // 登录时用户名或密码错误
+        LOGIN_REJECTED,  // 密码哈希线程池已满，登录被拒绝
+        LOGIN_THROTTLED,  // 登录尝试过于频繁，被限流拒绝
+        REFRESH_INVALID  // 刷新令牌无效或会话已失效
+    }
+
+    private final Map<Outcome, Timer> filterTimers = new EnumMap<>(Outcome.class);
+
+    private final Map<Failure, Counter> failureCounters = new EnumMap<>(Failure.class);
+
+    private final Timer jwtVerifyHitTimer;
+
+    private final Timer jwtVerifyMissTimer;
+
+    private final Timer sessionFoundTimer;
+
+    private final Timer sessionAbsentTimer;
+
+    private final Timer sessionErrorTimer;
+
+    private final Timer bcryptTimer;
+
+    private final Timer userLoadTimer;
+
+    private final Counter unauthenticatedCounter;
+
+    private final Counter accessDeniedCounter;
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        for (Outcome outcome : Outcome.values()) {
+            filterTimers.put(outcome, Timer.builder("auth.filter")
+                    .description("JWT 认证过滤器自身的耗时")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (Failure failure : Failure.values()) {
+            failureCounters.put(failure, Counter.builder("auth.failures")
+                    .description("认证失败次数")
+                    .tag("reason", failure.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.jwtVerifyHitTimer = jwtVerifyTimer(meterRegistry, "hit");
+        this.jwtVerifyMissTimer = jwtVerifyTimer(meterRegistry, "miss");
+        this.sessionFoundTimer = sessionFetchTimer(meterRegistry, "found");
+        this.sessionAbsentTimer = sessionFetchTimer(meterRegistry, "absent");
+        this.sessionErrorTimer = sessionFetchTimer(meterRegistry, "error");
+        this.bcryptTimer = Timer.builder("auth.password.bcrypt")
+                .description("单次 BCrypt 校验耗时").register(meterRegistry);
+        this.userLoadTimer = Timer.builder("auth.user.load")
+                .description("登录时查询用户、角色并合并权限的耗时").register(meterRegistry);
+        this.unauthenticatedCounter = rejectionCounter(meterRegistry, "401");
+        this.accessDeniedCounter = rejectionCounter(meterRegistry, "403");
+    }
+
+    /**
+     * 不注册到任何监控系统的实例，供直接构造组件的单元测试和基准测试使用
+     */
+    public static AuthMetrics noop() {
+        return new AuthMetrics(new CompositeMeterRegistry());
+    }
+
+    private static Timer jwtVerifyTimer(MeterRegistry meterRegistry, String cache) {
+        return Timer.builder("auth.jwt.verify")
+                .description("token 校验耗时，未命中已验证 Token 缓存时包含解析和验签")
+                .tag("cache", cache)
+                .register(meterRegistry);
+    }
+
+    private static Timer sessionFetchTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("auth.session.fetch")
+                .description("从 Redis 读取会话的耗时")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String status) {
+        return Counter.builder("auth.rejections")
+                .description("认证或授权失败处理器返回的次数")
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录认证过滤器的耗时
+     *
+     * @param outcome    认证结果
+     * @param startNanos 开始时的 System.nanoTime()
+     */
+    public void recordFilter(Outcome outcome, long startNanos) {
+        filterTimers.get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录 token 校验耗时
+     *
+     * @param cached     是否命中已验证 Token 缓存
+     * @param startNanos 开始时的 System.nanoTime()
+     */
+    public void recordJwtVerify(boolean cached, long startNanos) {
+        (cached ? jwtVerifyHitTimer : jwtVerifyMissTimer).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录从 Redis 读取会话的耗时
+     *
+     * @param found      会话是否存在
+     * @param error      读取失败时的异常，成功时为 null
+     * @param startNanos 开始时的 System.nanoTime()
+     */
+    public void recordSessionFetch(boolean found, Throwable error, long startNanos) {
+        Timer timer = error != null ? sessionErrorTimer : found ? sessionFoundTimer : sessionAbsentTimer;
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录单次 BCrypt 校验耗时
+     */
+    public void recordBcrypt(long startNanos) {
+        bcryptTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录登录时查询用户和权限的耗时
+     */
+    public void recordUserLoad(long startNanos) {
+        userLoadTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次认证失败
+     */
+    public void failure(Failure failure) {
+        failureCounters.get(failure).increment();
+    }
+
+    /**
+     * 记录认证失败处理器返回 401
+     */
+    public void unauthenticated() {
+        unauthenticatedCounter.increment();
+    }
+
+    /**
+     * 记录授权失败处理器返回 403
+     */
+    public void accessDenied() {
+        accessDeniedCounter.increment();
+    }
+}
@@ -0,0 +1,265 @@
+package com.scholar.securitytest.utils;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.ObservationView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 认证链路的采样追踪（基于 Micrometer Observation）
+ * 按 security.tracing.sample-rate 的比例对认证过滤器和登录请求采样，把一次请求的耗时拆分为各个步骤
+ * （提取 token、验签、读取会话、写入安全上下文；登录时的认证、数据库查询、生成 JWT、写入会话等），
+ * 采样的请求结束后整棵步骤树输出到日志，并在内存中保留最近的若干条。
+ * <p>
+ * 是否采样只在请求开始时决定一次：未采样的请求拿到的是 Observation.NOOP，之后的每个步骤只多一次判断，
+ * 不创建对象、不读取时间。使用独立的 ObservationRegistry，采样数据不会混入 Actuator 的指标。
+ */
+@Slf4j
+@Component
+public class AuthTracer {
+
+    // 未采样时直接返回，不做任何记录
+    private static final AuthTracer NOOP = new AuthTracer(0, 1);
+
+    private final double sampleRate;
+
+    private final ObservationRegistry registry = ObservationRegistry.create();
+
+    // 最近采样的请求，满了以后丢弃最早的
+    private final ArrayBlockingQueue<Span> recent;
+
+    public AuthTracer(@Value("${security.tracing.sample-rate:0}") double sampleRate,
+                      @Value("${security.tracing.recent-size:100}") int recentSize) {
+        this.sampleRate = sampleRate;
+        this.recent = new ArrayBlockingQueue<>(Math.max(recentSize, 1));
+        registry.observationConfig().observationHandler(new SpanHandler());
+    }
+
+    /**
+     * 不采样的实例，供直接构造组件的单元测试和基准测试使用
+     */
+    public static AuthTracer noop() {
+        return NOOP;
+    }
+
+    /**
+     * 开始一次请求的追踪，按采样率决定是否记录
+     *
+     * @param name 请求的名称，如 auth.filter、auth.login
+     * @return 已开始的 Observation，未采样时为 Observation.NOOP；调用方负责 stop
+     */
+    public Observation root(String name) {
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return Observation.NOOP;
+        }
+        return Observation.createNotStarted(name, Observation.Context::new, registry).start();
+    }
+
+    /**
+     * 在 parent 下开始一个步骤
+     *
+     * @param parent 所属的请求或上一级步骤
+     * @param name   步骤名称
+     * @return 已开始的 Observation，parent 未被采样时为 Observation.NOOP；调用方负责 stop
+     */
+    public Observation start(Observation parent, String name) {
+        if (parent.isNoop()) {
+            return Observation.NOOP;
+        }
+        return Observation.createNotStarted(name, Observation.Context::new, registry).parentObservation(parent).start();
+    }
+
+    /**
+     * 在当前线程打开的步骤下开始一个步骤，供拿不到 parent 的下层组件使用
+     *
+     * @param name 步骤名称
+     * @return 已开始的 Observation，当前线程没有采样中的步骤时为 Observation.NOOP；调用方负责 stop
+     */
+    public Observation start(String name) {
+        if (sampleRate <= 0) {
+            return Observation.NOOP;
+        }
+        Observation current = registry.getCurrentObservation();
+        return current == null ? Observation.NOOP : start(current, name);
+    }
+
+    /**
+     * 把 body 作为 parent 下的一个步骤执行，执行期间该步骤是当前线程的当前步骤
+     *
+     * @param parent 所属的请求或上一级步骤
+     * @param name   步骤名称
+     * @param body   步骤内容
+     * @return body 的返回值
+     */
+    @SuppressWarnings("try")  // scope 只用于在 body 执行期间设置当前步骤，结束时自动关闭，不直接引用
+    public <T, E extends Exception> T trace(Observation parent, String name, Step<T, E> body) throws E {
+        if (parent.isNoop()) {
+            return body.get();
+        }
+        Observation step = start(parent, name);
+        try (Observation.Scope scope = step.openScope()) {
+            return body.get();
+        } catch (Exception e) {
+            step.error(e);
+            throw e;
+        } finally {
+            step.stop();
+        }
+    }
+
+    /**
+     * 把 body 作为当前线程当前步骤下的一个步骤执行
+     *
+     * @param name 步骤名称
+     * @param body 步骤内容
+     * @return body 的返回值
+     */
+    public <T, E extends Exception> T trace(String name, Step<T, E> body) throws E {
+        if (sampleRate <= 0) {
+            return body.get();
+        }
+        Observation current = registry.getCurrentObservation();
+        return current == null ? body.get() : trace(current, name, body);
+    }
+
+    /**
+     * 把没有返回值的 body 作为 parent 下的一个步骤执行
+     */
+    public <E extends Exception> void run(Observation parent, String name, VoidStep<E> body) throws E {
+        trace(parent, name, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * 最近采样的请求，每条为一棵步骤树的文本形式
+     */
+    public List<String> recentTraces() {
+        List<String> traces = new ArrayList<>(recent.size());
+        for (Span span : recent) {
+            traces.add(span.render());
+        }
+        return traces;
+    }
+
+    @FunctionalInterface
+    public interface Step<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    @FunctionalInterface
+    public interface VoidStep<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * 一个已结束的步骤及其子步骤
+     */
+    private static final class Span {
+
+        private final String name;
+
+        private final long startNanos = System.nanoTime();
+
+        private long durationNanos;
+
+        private String tags = "";
+
+        private String error;
+
+        // 子步骤可能在其他线程结束（如登录时在密码哈希线程池中执行的认证）
+        private final Queue<Span> children = new ConcurrentLinkedQueue<>();
+
+        Span(String name) {
+            this.name = name;
+        }
+
+        void finish(Observation.Context context) {
+            durationNanos = System.nanoTime() - startNanos;
+            StringBuilder builder = new StringBuilder();
+            for (KeyValue keyValue : context.getLowCardinalityKeyValues()) {
+                builder.append(builder.length() == 0 ? "{" : ", ")
+                        .append(keyValue.getKey()).append('=').append(keyValue.getValue());
+            }
+            tags = builder.length() == 0 ? "" : builder.append('}').toString();
+            if (context.getError() != null) {
+                error = context.getError().getClass().getSimpleName();
+            }
+        }
+
+        String render() {
+            StringBuilder builder = new StringBuilder();
+            render(builder);
+            return builder.toString();
+        }
+
+        private void render(StringBuilder builder) {
+            builder.append(name).append(' ').append(String.format("%.3fms", durationNanos / 1_000_000.0));
+            if (!tags.isEmpty()) {
+                builder.append(' ').append(tags);
+            }
+            if (error != null) {
+                builder.append(" !").append(error);
+            }
+            if (!children.isEmpty()) {
+                builder.append(" [");
+                boolean first = true;
+                for (Span child : children) {
+                    if (!first) {
+                        builder.append(", ");
+                    }
+                    child.render(builder);
+                    first = false;
+                }
+                builder.append(']');
+            }
+        }
+    }
+
+    /**
+     * 把结束的步骤挂到上一级步骤下；整个请求结束时输出日志并保存到内存
+     */
+    private final class SpanHandler implements ObservationHandler<Observation.Context> {
+
+        @Override
+        public boolean supportsContext(Observation.Context context) {
+            return true;
+        }
+
+        @Override
+        public void onStart(Observation.Context context) {
+            context.put(Span.class, new Span(context.getName()));
+        }
+
+        @Override
+        public void onStop(Observation.Context context) {
+            Span span = context.get(Span.class);
+            if (span == null) {
+                return;
+            }
+            span.finish(context);
+            ObservationView parent = context.getParentObservation();
+            Span parentSpan = parent == null ? null : parent.getContextView().get(Span.class);
+            if (parentSpan != null) {
+                parentSpan.children.add(span);
+                return;
+            }
+            while (!recent.offer(span)) {
+                recent.poll();
+            }
+            log.info("认证链路采样：{}", span.render());
+        }
+    }
+}
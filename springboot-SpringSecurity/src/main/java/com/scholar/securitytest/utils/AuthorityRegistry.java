@@ -0,0 +1,138 @@
+package com.scholar.securitytest.utils;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 权限注册表
+ * 每个不同的权限标识（来自 sys_menu.perms）只对应一个规范的 GrantedAuthority 实例和一个稠密的整数ID，
+ * 相同的权限列表也只对应一个共享的不可变 AuthoritySet（内部带有按ID索引的位图）。
+ * 从 Redis 反序列化出的 LoginUser 只需一次哈希查找即可拿到权限集合，无需重新创建对象。
+ * <p>
+ * 权限ID按本进程遇到权限标识的顺序追加分配，已分配的ID在进程内不会改变，
+ * 但在不同节点之间、重启前后都可能不同：ID只能用于本进程内的位图（AuthoritySet、PermissionMask），
+ * 不能写入 Redis、token 等会被其他进程读取的地方（需要跨节点的紧凑编码见 PermissionClaimCodec，使用 sys_menu 的ID）。
+ * 启动时预先注册全部权限只是为了让ID稠密、位图更短。
+ */
+public final class AuthorityRegistry {
+
+    // 复用的权限集合数量上限，防止异常数据导致内存无限增长
+    private static final int MAX_INTERNED_SETS = 4096;
+
+    // 权限标识 -> 规范的 GrantedAuthority 实例
+    private static final ConcurrentHashMap<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
+    // 权限标识 -> 权限ID
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+
+    // 权限列表 -> 共享的不可变权限集合
+    private static final ConcurrentHashMap<List<String>, AuthoritySet> AUTHORITY_SETS = new ConcurrentHashMap<>();
+
+    // 分配新ID时使用的锁，读取不加锁
+    private static final ReentrantLock REGISTER_LOCK = new ReentrantLock();
+
+    private AuthorityRegistry() {
+    }
+
+    /**
+     * 按顺序注册一批权限标识（启动时和角色权限快照重建时调用）
+     *
+     * @param permissions 权限标识列表
+     */
+    public static void registerAll(Collection<String> permissions) {
+        for (String permission : permissions) {
+            if (StringUtils.hasText(permission)) {
+                idOf(permission);
+            }
+        }
+    }
+
+    /**
+     * 获取权限标识对应的ID，尚未注册时分配一个新ID
+     *
+     * @param permission 权限标识
+     * @return 权限ID
+     */
+    public static int idOf(String permission) {
+        Integer id = IDS.get(permission);
+        if (id != null) {
+            return id;
+        }
+        REGISTER_LOCK.lock();
+        try {
+            id = IDS.get(permission);
+            if (id == null) {
+                // 只在持有锁时写入，当前的个数就是下一个ID
+                id = IDS.size();
+                IDS.put(permission, id);
+            }
+            return id;
+        } finally {
+            REGISTER_LOCK.unlock();
+        }
+    }
+
+    /**
+     * 获取权限标识对应的规范 GrantedAuthority 实例
+     *
+     * @param permission 权限标识
+     * @return 共享的 GrantedAuthority 实例
+     */
+    public static GrantedAuthority authorityOf(String permission) {
+        return AUTHORITIES.computeIfAbsent(permission, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * 获取权限列表对应的共享权限集合
+     *
+     * @param permissions 权限标识列表
+     * @return 不可变的权限集合
+     */
+    public static AuthoritySet authoritySetOf(List<String> permissions) {
+        if (permissions == null || permissions.isEmpty()) {
+            return AuthoritySet.EMPTY;
+        }
+        AuthoritySet authoritySet = AUTHORITY_SETS.get(permissions);
+        if (authoritySet != null) {
+            return authoritySet;
+        }
+
+        authoritySet = build(permissions);
+        if (AUTHORITY_SETS.size() < MAX_INTERNED_SETS) {
+            // 以不可变副本作为键，避免调用方后续修改列表影响缓存
+            AuthoritySet existing = AUTHORITY_SETS.putIfAbsent(List.copyOf(permissions), authoritySet);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return authoritySet;
+    }
+
+    private static AuthoritySet build(Collection<String> permissions) {
+        Set<String> distinct = new HashSet<>();
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        long[] bits = new long[0];
+        for (String permission : permissions) {
+            // 忽略空的权限标识（如目录类型的菜单没有 perms）
+            if (StringUtils.hasText(permission) && distinct.add(permission)) {
+                authorities.add(authorityOf(permission));
+                int id = idOf(permission);
+                int word = id >>> 6;
+                if (word >= bits.length) {
+                    bits = Arrays.copyOf(bits, word + 1);
+                }
+                bits[word] |= 1L << id;
+            }
+        }
+        return new AuthoritySet(Set.copyOf(authorities), Set.copyOf(distinct), bits);
+    }
+}
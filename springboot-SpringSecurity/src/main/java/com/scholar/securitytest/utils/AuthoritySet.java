@@ -0,0 +1,99 @@
+package com.scholar.securitytest.utils;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * 不可变的权限集合
+ * 由 AuthorityRegistry 创建和复用，元素均为共享的规范 GrantedAuthority 实例，
+ * 按权限字符串或权限ID判断是否拥有某个权限的时间复杂度为 O(1)。
+ * 权限ID位图（每个 long 存放64个权限）供 PermissionMask 做位运算判断。
+ */
+public final class AuthoritySet extends AbstractSet<GrantedAuthority> {
+
+    // 空权限集合
+    static final AuthoritySet EMPTY = new AuthoritySet(Set.of(), Set.of(), new long[0]);
+
+    private final Set<GrantedAuthority> authorities;
+
+    private final Set<String> permissions;
+
+    // 权限ID位图，创建后不再修改
+    private final long[] bits;
+
+    AuthoritySet(Set<GrantedAuthority> authorities, Set<String> permissions, long[] bits) {
+        this.authorities = authorities;
+        this.permissions = permissions;
+        this.bits = bits;
+    }
+
+    /**
+     * 判断位图中指定字的任意一位是否与掩码相交
+     *
+     * @param word 字下标（权限ID / 64）
+     * @param mask 掩码
+     * @return 是否相交
+     */
+    public boolean intersects(int word, long mask) {
+        return word < bits.length && (bits[word] & mask) != 0;
+    }
+
+    /**
+     * 判断是否拥有指定ID的权限
+     *
+     * @param id 权限ID
+     * @return 是否拥有该权限
+     */
+    public boolean containsId(int id) {
+        return intersects(id >>> 6, 1L << id);
+    }
+
+    /**
+     * 获取权限ID位图的副本
+     *
+     * @return 权限ID位图
+     */
+    public long[] toBitset() {
+        return bits.clone();
+    }
+
+    /**
+     * 判断是否拥有指定权限
+     *
+     * @param permission 权限标识，如 "user:view"
+     * @return 是否拥有该权限
+     */
+    public boolean containsPermission(String permission) {
+        return permission != null && permissions.contains(permission);
+    }
+
+    /**
+     * 获取权限标识集合（不可变）
+     *
+     * @return 权限标识集合
+     */
+    public Set<String> permissions() {
+        return permissions;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o instanceof GrantedAuthority authority) {
+            return containsPermission(authority.getAuthority());
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<GrantedAuthority> iterator() {
+        return authorities.iterator();
+    }
+
+    @Override
+    public int size() {
+        return authorities.size();
+    }
+}
@@ -0,0 +1,129 @@
+package com.scholar.securitytest.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * 强度可校准的 BCrypt 密码编码器
+ * 启动时测量本机的 BCrypt 耗时，选出使单次校验接近目标耗时的强度（cost）；
+ * 已存储的哈希强度与目标不一致时，upgradeEncoding 返回 true，由 Spring Security 在登录成功后重新哈希并写回。
+ * <p>
+ * 为避免不同硬件的节点校准出不同强度后来回重新哈希，强度低于目标时总是升级，
+ * 高于目标超过 tolerance 时才降级；硬件差异较大的集群应通过配置固定强度。
+ */
+@Slf4j
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    // 用于校准的固定明文
+    private static final String SAMPLE_PASSWORD = "calibration-sample";
+
+    private final int strength;
+
+    private final int tolerance;
+
+    private final AuthMetrics authMetrics;
+
+    public CalibratedBCryptPasswordEncoder(int strength, int tolerance) {
+        this(strength, tolerance, AuthMetrics.noop());
+    }
+
+    public CalibratedBCryptPasswordEncoder(int strength, int tolerance, AuthMetrics authMetrics) {
+        super(strength);
+        this.strength = strength;
+        this.tolerance = tolerance;
+        this.authMetrics = authMetrics;
+    }
+
+    /**
+     * 目标强度
+     */
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * 校验密码，耗时计入 auth.password.bcrypt
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        try {
+            return super.matches(rawPassword, encodedPassword);
+        } finally {
+            authMetrics.recordBcrypt(start);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        if (cost < 0) {
+            return false;  // 不是 BCrypt 哈希，交给其他编码器处理
+        }
+        return cost < strength || cost > strength + tolerance;
+    }
+
+    /**
+     * 根据目标耗时选择 BCrypt 强度：强度每加 1，耗时翻倍。
+     * 先用较低强度预热，再测量基准强度的耗时并按 2 的幂次外推。
+     *
+     * @param targetMillis 单次校验的目标耗时（毫秒）
+     * @param minStrength  允许的最低强度
+     * @param maxStrength  允许的最高强度
+     * @return 选出的强度
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        // 预热，避免解释执行阶段的耗时导致低估强度
+        BCryptPasswordEncoder warmup = new BCryptPasswordEncoder(4);
+        String warmupHash = warmup.encode(SAMPLE_PASSWORD);
+        for (int i = 0; i < 20; i++) {
+            warmup.matches(SAMPLE_PASSWORD, warmupHash);
+        }
+
+        // 测量基准强度的平均耗时
+        int baseStrength = 8;
+        BCryptPasswordEncoder base = new BCryptPasswordEncoder(baseStrength);
+        String baseHash = base.encode(SAMPLE_PASSWORD);
+        int rounds = 5;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            base.matches(SAMPLE_PASSWORD, baseHash);
+        }
+        double baseMillis = (System.nanoTime() - start) / 1_000_000.0 / rounds;
+
+        // 取耗时不超过目标的最大强度
+        int strength = baseStrength;
+        double millis = baseMillis;
+        while (millis * 2 <= targetMillis && strength < 31) {
+            millis *= 2;
+            strength++;
+        }
+        while (millis > targetMillis && strength > 4) {
+            millis /= 2;
+            strength--;
+        }
+        int chosen = Math.max(minStrength, Math.min(maxStrength, strength));
+        log.info("BCrypt 强度校准：强度 {} 耗时 {} 毫秒，目标 {} 毫秒，选用强度 {}",
+                baseStrength, String.format("%.2f", baseMillis), targetMillis, chosen);
+        return chosen;
+    }
+
+    /**
+     * 从 BCrypt 哈希（如 $2a$10$...）中解析强度
+     *
+     * @param encodedPassword 哈希
+     * @return 强度，格式不正确时返回 -1
+     */
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = encodedPassword.charAt(4);
+        char ones = encodedPassword.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+}
@@ -0,0 +1,65 @@
+package com.scholar.securitytest.utils;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 非线程安全对象（Mac、MessageDigest、Signature）的无锁对象池
+ * 取代按线程缓存的 ThreadLocal：虚拟线程模式下每个请求都是新线程，ThreadLocal 的初始化会在每个请求上重复执行。
+ * 池中的实例数随并发量增长，空闲实例超过上限时直接丢弃。
+ * <p>
+ * 使用方式：acquire 取出实例，用完后 release 归还；使用过程中抛出异常时不归还，避免把状态不确定的实例放回池中。
+ *
+ * @param <T> 实例类型
+ */
+public final class InstancePool<T> {
+
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+
+    // 空闲实例数，ConcurrentLinkedQueue.size() 需要遍历
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    private final Supplier<T> factory;
+
+    private final int maxIdle;
+
+    /**
+     * @param factory 创建新实例，池为空时调用（例如克隆一个已初始化的原型）
+     * @param maxIdle 最多保留的空闲实例数
+     */
+    public InstancePool(Supplier<T> factory, int maxIdle) {
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * 按 CPU 核数的若干倍保留空闲实例，同时在使用的实例数不会长时间超过这个数量
+     */
+    public InstancePool(Supplier<T> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * 取出一个实例，池为空时创建新实例
+     */
+    public T acquire() {
+        T instance = idle.poll();
+        if (instance == null) {
+            return factory.get();
+        }
+        idleCount.decrementAndGet();
+        return instance;
+    }
+
+    /**
+     * 归还实例，调用方应保证实例已处于可直接复用的状态
+     */
+    public void release(T instance) {
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(instance);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.scholar.securitytest.utils;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAKeyGenParameterSpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JWT 的非对称签名算法，负责生成密钥对、创建 Signature，以及公钥与 JWK（RFC 7517）之间的转换
+ */
+public enum JwsAlgorithm {
+
+    /**
+     * RSASSA-PKCS1-v1_5 + SHA-256，2048 位密钥
+     */
+    RS256("SHA256withRSA") {
+        @Override
+        KeyPair generateKeyPair() throws GeneralSecurityException {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(new RSAKeyGenParameterSpec(2048, RSAKeyGenParameterSpec.F4));
+            return generator.generateKeyPair();
+        }
+
+        @Override
+        Map<String, Object> toJwk(PublicKey publicKey) {
+            RSAPublicKey key = (RSAPublicKey) publicKey;
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "RSA");
+            jwk.put("n", encodeUnsigned(key.getModulus(), 0));
+            jwk.put("e", encodeUnsigned(key.getPublicExponent(), 0));
+            return jwk;
+        }
+
+        @Override
+        PublicKey fromJwk(Map<String, Object> jwk) throws GeneralSecurityException {
+            return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+                    decodeUnsigned(jwk.get("n")), decodeUnsigned(jwk.get("e"))));
+        }
+    },
+
+    /**
+     * ECDSA P-256 + SHA-256，签名为 JOSE 要求的 r||s 定长格式（而非 DER）
+     */
+    ES256("SHA256withECDSAinP1363Format") {
+        @Override
+        KeyPair generateKeyPair() throws GeneralSecurityException {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        }
+
+        @Override
+        Map<String, Object> toJwk(PublicKey publicKey) {
+            ECPoint point = ((ECPublicKey) publicKey).getW();
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", encodeUnsigned(point.getAffineX(), 32));
+            jwk.put("y", encodeUnsigned(point.getAffineY(), 32));
+            return jwk;
+        }
+
+        @Override
+        PublicKey fromJwk(Map<String, Object> jwk) throws GeneralSecurityException {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            ECPoint point = new ECPoint(decodeUnsigned(jwk.get("x")), decodeUnsigned(jwk.get("y")));
+            return KeyFactory.getInstance("EC").generatePublic(
+                    new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class)));
+        }
+    },
+
+    /**
+     * EdDSA（Ed25519）
+     */
+    EdDSA("Ed25519") {
+        // Ed25519 公钥 X.509 编码的固定前缀，之后是 32 字节的原始公钥
+        private static final byte[] X509_PREFIX = {0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00};
+
+        @Override
+        KeyPair generateKeyPair() throws GeneralSecurityException {
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        }
+
+        @Override
+        Map<String, Object> toJwk(PublicKey publicKey) {
+            byte[] encoded = publicKey.getEncoded();
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("x", BASE64_URL_ENCODER.encodeToString(
+                    Arrays.copyOfRange(encoded, X509_PREFIX.length, encoded.length)));
+            return jwk;
+        }
+
+        @Override
+        PublicKey fromJwk(Map<String, Object> jwk) throws GeneralSecurityException {
+            byte[] raw = BASE64_URL_DECODER.decode((String) jwk.get("x"));
+            byte[] encoded = Arrays.copyOf(X509_PREFIX, X509_PREFIX.length + raw.length);
+            System.arraycopy(raw, 0, encoded, X509_PREFIX.length, raw.length);
+            return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+        }
+    };
+
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+    private final String signatureAlgorithm;
+
+    JwsAlgorithm(String signatureAlgorithm) {
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+
+    /**
+     * 生成新的密钥对
+     */
+    abstract KeyPair generateKeyPair() throws GeneralSecurityException;
+
+    /**
+     * 公钥转换为 JWK 中与密钥类型相关的成员（kty、n/e、crv/x/y）
+     */
+    abstract Map<String, Object> toJwk(PublicKey publicKey);
+
+    /**
+     * 由 JWK 解析公钥，只在加载密钥环时调用，验签时不再解析
+     */
+    abstract PublicKey fromJwk(Map<String, Object> jwk) throws GeneralSecurityException;
+
+    /**
+     * 创建 Signature 实例（非线程安全，调用方通过 InstancePool 复用）
+     */
+    Signature newSignature() {
+        try {
+            return Signature.getInstance(signatureAlgorithm);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("不支持的签名算法 " + signatureAlgorithm, e);
+        }
+    }
+
+    /**
+     * 大整数编码为无符号大端字节的 Base64URL，length 大于 0 时左侧补零到固定长度
+     */
+    private static String encodeUnsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);  // 去掉符号位产生的前导零
+        }
+        if (length > bytes.length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return BASE64_URL_ENCODER.encodeToString(bytes);
+    }
+
+    private static BigInteger decodeUnsigned(Object value) {
+        return new BigInteger(1, BASE64_URL_DECODER.decode((String) value));
+    }
+}
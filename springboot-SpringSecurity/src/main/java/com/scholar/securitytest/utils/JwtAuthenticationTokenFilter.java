@@ -1,12 +1,15 @@
 package com.scholar.securitytest.utils;
 
 import com.scholar.securitytest.domain.LoginUser;
-import io.jsonwebtoken.Claims;
+import com.scholar.securitytest.domain.VerifiedToken;
+import com.scholar.securitytest.service.RolePermissionService;
+import io.micrometer.observation.Observation;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -17,50 +20,114 @@ import java.io.IOException;
 import java.util.Objects;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 // OncePerRequestFilter 保证每次请求该过滤器的 doFilterInternal 方法只执行一次
 public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
 
     @Autowired
-    RedisCache redisCache;  // 用于从Redis中获取用户信息
+    LoginUserCache loginUserCache;  // 用于从本地缓存或Redis中获取用户信息
+
+    @Autowired
+    JwtTokenCache jwtTokenCache;  // 已验证Token缓存，避免重复验签
+
+    @Autowired
+    RolePermissionService rolePermissionService;  // 角色权限快照，角色权限变化后刷新会话中的权限
+
+    @Autowired
+    StatelessAuthenticator statelessAuthenticator;  // 无状态模式下由token中的声明认证，不读取Redis
+
+    @Autowired
+    AuthMetrics authMetrics = AuthMetrics.noop();  // 认证耗时与失败原因
+
+    @Autowired
+    AuthTracer authTracer = AuthTracer.noop();  // 按比例采样，拆分单个请求各步骤的耗时
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        // 只统计本过滤器自身的耗时，不含后续过滤器和控制器；采样追踪同样在放行前结束
+        long start = System.nanoTime();
+        Observation trace = authTracer.root("auth.filter");
 
         // 1. 在请求头中获取token
-        String token = request.getHeader("token");
+        String token = authTracer.trace(trace, "token.extract", () -> request.getHeader("token"));
 
         // 如果token为空，直接放行，SecurityContextHolder中没有用户信息，后续的过滤器会进行处理
         if (!StringUtils.hasText(token)) {
+            authMetrics.recordFilter(AuthMetrics.Outcome.ANONYMOUS, start);
+            trace.lowCardinalityKeyValue("outcome", "anonymous").stop();
             filterChain.doFilter(request, response);
             return;
         }
 
-        String subject;
+        LoginUser loginUser;
+        VerifiedToken verified;
         try {
-            // 2. 解析token，获取用户id（subject）
-            Claims claims = JwtUtil.parseJWT(token);  // 解析JWT
-            subject = claims.getSubject();  // 获取subject（即用户ID）
-        } catch (Exception e) {
-            // 解析失败，抛出异常
-            throw new RuntimeException("token非法");
-        }
+            try {
+                // 2. 解析token（优先命中已验证Token缓存），获取用户id（subject）
+                verified = authTracer.trace(trace, "jwt.verify", () -> jwtTokenCache.verify(token));
+            } catch (Exception e) {
+                // 解析失败，抛出异常
+                authMetrics.failure(AuthMetrics.Failure.TOKEN_INVALID);
+                throw new RuntimeException("token非法");
+            }
 
-        // 3. 使用用户id（subject）从Redis中获取用户信息
-        String redisKey = "login:" + subject;  // Redis中的key格式为 "login:userId"
-        LoginUser loginUser = redisCache.getCacheObject(redisKey);  // 从Redis中获取LoginUser对象
-
-        if (Objects.isNull(loginUser)) {
-            // 如果Redis中没有找到用户信息，抛出异常表示用户未登录
-            throw new RuntimeException("用户未登录");
+            // 无状态模式：已吊销的token直接拒绝；权限声明的版本与当前快照一致时信任token中的声明，不读取Redis
+            if (statelessAuthenticator.isRevoked(verified)) {
+                authMetrics.failure(AuthMetrics.Failure.TOKEN_REVOKED);
+                throw new RuntimeException("用户未登录");
+            }
+            loginUser = authTracer.trace(trace, "stateless.claims", () -> statelessAuthenticator.authenticate(verified));
+            if (loginUser == null) {
+                loginUser = authTracer.trace(trace, "session.load", () -> loadSession(verified.getSubject()));
+            }
+        } catch (RuntimeException e) {
+            authMetrics.recordFilter(AuthMetrics.Outcome.REJECTED, start);
+            trace.lowCardinalityKeyValue("outcome", "rejected").error(e);
+            trace.stop();
+            throw e;
         }
 
         // 4. 如果用户信息存在，将其封装为Authentication对象并设置到SecurityContextHolder中
+        // details 中保存验签后的token，登出时据此吊销
+        Observation contextStep = authTracer.start(trace, "security.context");
         UsernamePasswordAuthenticationToken authenticationToken =
                 new UsernamePasswordAuthenticationToken(loginUser, null, loginUser.getAuthorities());
+        authenticationToken.setDetails(verified);
         SecurityContextHolder.getContext().setAuthentication(authenticationToken);  // 设置认证信息
+        contextStep.stop();
+        authMetrics.recordFilter(AuthMetrics.Outcome.AUTHENTICATED, start);
+        trace.lowCardinalityKeyValue("outcome", "authenticated").stop();
 
         // 5. 放行请求
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * 按会话认证：读取登录用户信息，按最新的角色权限快照刷新权限，并登记会话被访问
+     */
+    private LoginUser loadSession(String subject) {
+        // 3. 使用用户id（subject）获取用户信息，优先读取本地缓存，未命中时读取Redis中的 "login:userId"
+        LoginUser loginUser = loginUserCache.get(subject);
+
+        if (Objects.isNull(loginUser)) {
+            // 如果Redis中没有找到用户信息，抛出异常表示用户未登录
+            authMetrics.failure(AuthMetrics.Failure.SESSION_ABSENT);
+            throw new RuntimeException("用户未登录");
+        }
+
+        // 角色权限快照已更新时，按新快照重新计算权限，只替换本地副本，无需重新登录
+        LoginUser refreshed = rolePermissionService.refreshPermissions(loginUser);
+        if (refreshed != loginUser) {
+            loginUserCache.putLocal(subject, refreshed);
+            loginUser = refreshed;
+        }
+
+        // 登记会话被访问，有效期由后台批量刷新；已超过绝对超时的会话视为未登录
+        if (!loginUserCache.touch(subject, loginUser)) {
+            authMetrics.failure(AuthMetrics.Failure.SESSION_EXPIRED);
+            throw new RuntimeException("用户未登录");
+        }
+        return loginUser;
+    }
+}
@@ -0,0 +1,416 @@
+package com.scholar.securitytest.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JWT 签名密钥环（jwt.signing.algorithm 为 RS256、ES256 或 EdDSA 时启用）
+ * <p>
+ * 每个节点在本地生成自己的签名密钥对，私钥不离开本节点，公钥以 JWK 形式发布到 Redis 哈希 "jwt:keys"（kid → JWK）。
+ * 密钥按固定间隔轮换，并提前一个周期发布：新密钥先发布、下一次轮换时才开始签名，
+ * 其他节点在此期间已通过发布/订阅通知或定期拉取得到该公钥。
+ * 停止签名的公钥继续保留 token 的最长有效期，之后由任一节点从 Redis 中删除。
+ * 启动时（以及 Redis 不可用导致错过提前发布时）签名密钥尚未发布：第一次签名前同步发布并发送变化通知，
+ * 发布失败则拒绝签名，不签发其他节点无法验签的 token。
+ * <p>
+ * 验签使用的公钥保存在按 JWT 头部（包含 alg 和 kid）索引的不可变映射中，加载时一次解析，
+ * 验签时只做一次哈希查找，不解析 JSON、不解析密钥、不访问 Redis；未知的 kid 直接拒绝（UnknownKeyException），
+ * 但不视为伪造：可能是其他节点刚发布、本节点尚未收到通知的公钥。
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${jwt.signing.algorithm:HS256}' != 'HS256'")
+public class JwtKeyRing implements MessageListener {
+
+    // 公钥发布的 Redis 哈希
+    public static final String KEYS_KEY = "jwt:keys";
+
+    // 公钥变化通知的频道
+    public static final String CHANGED_CHANNEL = "jwt:keys:changed";
+
+    // JWK 中的自定义成员：公钥的失效时间（秒），之后不会再有用该密钥签名且未过期的 token
+    private static final String RETIRE_AT = "exp";
+
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final JwsAlgorithm algorithm;
+
+    private final long rotationMillis;
+
+    private final long maxTokenTtlMillis;
+
+    // 本节点的密钥：上一个签名密钥（Redis 不可用时仍可验签其签发的 token）、当前用于签名的密钥、
+    // 已发布且下一次轮换时启用的密钥
+    private volatile SigningKey previous;
+    private volatile SigningKey current;
+    private volatile SigningKey next;
+
+    // 轮换与重新加载串行执行，验签无锁
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // 按 JWT 头部索引的验签密钥，整体替换
+    private volatile Map<String, VerificationKey> verificationKeys = Map.of();
+
+    // 预先生成的 JWKS 文档
+    private volatile String jwks = "{\"keys\":[]}";
+
+    public JwtKeyRing(@Value("${jwt.signing.algorithm}") JwsAlgorithm algorithm,
+                      @Value("${jwt.signing.rotation-interval:P1D}") Duration rotationInterval,
+                      @Value("${jwt.ttl:1h}") Duration maxTokenTtl) {
+        this.algorithm = algorithm;
+        this.rotationMillis = rotationInterval.toMillis();
+        this.maxTokenTtlMillis = maxTokenTtl.toMillis();
+        long now = System.currentTimeMillis();
+        this.current = generate(now + rotationMillis);
+        this.next = generate(now + 2 * rotationMillis);
+        rebuild(Map.of());
+    }
+
+    /**
+     * 当前用于签名的密钥，尚未发布时先同步发布
+     *
+     * @throws IllegalStateException 密钥无法发布到 Redis 时抛出
+     */
+    public SigningKey signingKey() {
+        SigningKey key = current;
+        if (key.published) {
+            return key;
+        }
+        refresh();
+        key = current;
+        if (!key.published) {
+            throw new IllegalStateException("JWT 签名密钥尚未发布，暂时无法签发 token");
+        }
+        return key;
+    }
+
+    /**
+     * 按 JWT 头部（Base64URL 原文）查找验签密钥
+     *
+     * @param header JWT 的第一段
+     * @return 验签密钥，未知的头部返回 null
+     */
+    public VerificationKey verificationKey(String header) {
+        return verificationKeys.get(header);
+    }
+
+    /**
+     * 当前有效的全部公钥（JWK Set 文档）
+     */
+    public String jwks() {
+        return jwks;
+    }
+
+    /**
+     * 轮换密钥：已提前发布的密钥开始签名，并生成、发布下一个密钥
+     */
+    @Scheduled(fixedDelayString = "${jwt.signing.rotation-interval:P1D}",
+            initialDelayString = "${jwt.signing.rotation-interval:P1D}")
+    public void rotate() {
+        lock.lock();
+        try {
+            previous = current;
+            current = next;
+            next = generate(System.currentTimeMillis() + 2 * rotationMillis);
+            log.info("JWT 签名密钥已轮换：kid {}", current.kid);
+        } finally {
+            lock.unlock();
+        }
+        refresh();
+    }
+
+    /**
+     * 发布本节点的公钥，并重新加载所有节点发布的公钥；顺带删除已失效的公钥。
+     * 本节点有密钥第一次发布成功时通知其他节点立即加载。
+     * Redis 暂不可用时只使用本节点的公钥，下一次拉取时重新发布。
+     */
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh-interval:PT1M}")
+    public void refresh() {
+        String newlyPublished;
+        lock.lock();
+        try {
+            newlyPublished = refreshLocked();
+        } finally {
+            lock.unlock();
+        }
+        if (newlyPublished == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(CHANGED_CHANNEL, newlyPublished);
+        } catch (DataAccessException e) {
+            // 其他节点在下一次定期拉取时加载
+            log.warn("JWT 公钥变化通知发送失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return 本次第一次发布的密钥的 kid，没有时返回 null
+     */
+    private String refreshLocked() {
+        long now = System.currentTimeMillis();
+        String newlyPublished = null;
+        Map<String, String> published;
+        try {
+            Map<String, String> own = new HashMap<>();
+            own.put(current.kid, current.jwkJson);
+            own.put(next.kid, next.jwkJson);
+            stringRedisTemplate.opsForHash().putAll(KEYS_KEY, own);
+            for (SigningKey key : List.of(current, next)) {
+                if (!key.published) {
+                    key.published = true;
+                    newlyPublished = key.kid;
+                }
+            }
+            Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(KEYS_KEY);
+            published = new HashMap<>();
+            List<Object> retired = new ArrayList<>();
+            entries.forEach((kid, json) -> {
+                if (retireAtMillis((String) json) <= now) {
+                    retired.add(kid);
+                } else {
+                    published.put((String) kid, (String) json);
+                }
+            });
+            if (!retired.isEmpty()) {
+                stringRedisTemplate.opsForHash().delete(KEYS_KEY, retired.toArray());
+            }
+        } catch (DataAccessException e) {
+            log.warn("加载 JWT 公钥失败：{}", e.getMessage());
+            return newlyPublished;
+        }
+        rebuild(published);
+        return newlyPublished;
+    }
+
+    /**
+     * 收到其他节点的公钥变化通知，立即重新加载
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        refresh();
+    }
+
+    /**
+     * 由本节点的密钥和其他节点发布的 JWK 重建验签映射和 JWKS 文档
+     */
+    private void rebuild(Map<String, String> published) {
+        Map<String, VerificationKey> keys = new HashMap<>();
+        List<Map<String, Object>> jwkList = new ArrayList<>();
+        List<SigningKey> ownKeys = new ArrayList<>(List.of(current, next));
+        if (previous != null && previous.retireAtMillis > System.currentTimeMillis()) {
+            ownKeys.add(previous);
+        }
+        for (SigningKey own : ownKeys) {
+            keys.put(own.header, own.verificationKey);
+            jwkList.add(own.jwk);
+        }
+        published.forEach((kid, json) -> {
+            if (ownKeys.stream().anyMatch(own -> own.kid.equals(kid))) {
+                return;
+            }
+            try {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> jwk = OBJECT_MAPPER.readValue(json, Map.class);
+                JwsAlgorithm jwkAlgorithm = JwsAlgorithm.valueOf((String) jwk.get("alg"));
+                VerificationKey key = new VerificationKey(kid, jwkAlgorithm, jwkAlgorithm.fromJwk(jwk));
+                keys.put(header(jwkAlgorithm, kid), key);
+                jwkList.add(jwk);
+            } catch (Exception e) {
+                // 无法解析的公钥只跳过，不影响其他公钥
+                log.warn("忽略无法解析的 JWT 公钥 {}：{}", kid, e.getMessage());
+            }
+        });
+        try {
+            jwks = OBJECT_MAPPER.writeValueAsString(Map.of("keys", jwkList));
+        } catch (Exception e) {
+            throw new IllegalStateException("无法生成 JWKS", e);
+        }
+        verificationKeys = Map.copyOf(keys);
+    }
+
+    private SigningKey generate(long stopsSigningAt) {
+        try {
+            KeyPair keyPair = algorithm.generateKeyPair();
+            String kid = UUID.randomUUID().toString().replace("-", "");
+            return new SigningKey(kid, algorithm, keyPair, stopsSigningAt + maxTokenTtlMillis);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法生成 " + algorithm + " 密钥对", e);
+        }
+    }
+
+    private static long retireAtMillis(String json) {
+        try {
+            Object retireAt = OBJECT_MAPPER.readValue(json, Map.class).get(RETIRE_AT);
+            return retireAt instanceof Number seconds ? seconds.longValue() * 1000 : Long.MAX_VALUE;
+        } catch (Exception e) {
+            return 0;  // 无法解析的条目视为已失效
+        }
+    }
+
+    /**
+     * JWT 头部 {"alg":"...","kid":"..."} 的 Base64URL 编码，同一密钥签发的 token 头部完全相同
+     */
+    static String header(JwsAlgorithm algorithm, String kid) {
+        String json = "{\"alg\":\"" + algorithm.name() + "\",\"kid\":\"" + kid + "\"}";
+        return BASE64_URL_ENCODER.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * JWT 头部带有本节点未加载的 kid
+     * 与签名不符不同，不应缓存为已拒绝：该公钥可能稍后通过通知或定期拉取加载。
+     */
+    public static class UnknownKeyException extends SignatureException {
+
+        public UnknownKeyException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 验签密钥：公钥已解析，可直接用于 Signature.initVerify
+     */
+    public static class VerificationKey {
+
+        final String kid;
+
+        final JwsAlgorithm algorithm;
+
+        final PublicKey publicKey;
+
+        // 复用 Signature，initVerify 只设置密钥，不解析
+        private final InstancePool<Signature> signatures;
+
+        VerificationKey(String kid, JwsAlgorithm algorithm, PublicKey publicKey) {
+            this.kid = kid;
+            this.algorithm = algorithm;
+            this.publicKey = publicKey;
+            this.signatures = new InstancePool<>(algorithm::newSignature);
+        }
+
+        /**
+         * 校验签名
+         *
+         * @param data      签名输入（头部.载荷）
+         * @param length    签名输入的长度
+         * @param signature 签名
+         * @return 签名是否有效
+         */
+        public boolean verify(byte[] data, int length, byte[] signature) {
+            try {
+                Signature verifier = signatures.acquire();
+                verifier.initVerify(publicKey);
+                verifier.update(data, 0, length);
+                boolean valid = verifier.verify(signature);
+                signatures.release(verifier);
+                return valid;
+            } catch (GeneralSecurityException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 本节点的签名密钥，私钥只保存在内存中
+     */
+    public static class SigningKey {
+
+        final String kid;
+
+        final String header;
+
+        final Map<String, Object> jwk;
+
+        final String jwkJson;
+
+        final long retireAtMillis;
+
+        final VerificationKey verificationKey;
+
+        private final PrivateKey privateKey;
+
+        // 公钥是否已发布到 Redis，只在持有密钥环的锁时修改
+        private volatile boolean published;
+
+        // 复用 Signature，每次使用前 initSign 重置状态
+        private final InstancePool<Signature> signatures;
+
+        SigningKey(String kid, JwsAlgorithm algorithm, KeyPair keyPair, long retireAtMillis) {
+            this.kid = kid;
+            this.header = JwtKeyRing.header(algorithm, kid);
+            this.retireAtMillis = retireAtMillis;
+            this.privateKey = keyPair.getPrivate();
+            this.signatures = new InstancePool<>(algorithm::newSignature);
+            this.verificationKey = new VerificationKey(kid, algorithm, keyPair.getPublic());
+            Map<String, Object> jwk = new LinkedHashMap<>(algorithm.toJwk(keyPair.getPublic()));
+            jwk.put("kid", kid);
+            jwk.put("alg", algorithm.name());
+            jwk.put("use", "sig");
+            jwk.put(RETIRE_AT, retireAtMillis / 1000);
+            this.jwk = Collections.unmodifiableMap(jwk);
+            try {
+                this.jwkJson = OBJECT_MAPPER.writeValueAsString(jwk);
+            } catch (Exception e) {
+                throw new IllegalStateException("无法序列化 JWK", e);
+            }
+        }
+
+        /**
+         * JWT 的第一段（Base64URL 编码的头部）
+         */
+        public String header() {
+            return header;
+        }
+
+        /**
+         * 对签名输入签名
+         *
+         * @param data 签名输入（头部.载荷）
+         * @return 签名
+         */
+        public byte[] sign(byte[] data) {
+            try {
+                Signature signer = signatures.acquire();
+                signer.initSign(privateKey);
+                signer.update(data);
+                byte[] signed = signer.sign();
+                signatures.release(signer);
+                return signed;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("JWT 签名失败", e);
+            }
+        }
+    }
+}
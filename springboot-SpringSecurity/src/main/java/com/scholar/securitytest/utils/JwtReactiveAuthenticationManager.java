@@ -0,0 +1,139 @@
+package com.scholar.securitytest.utils;
+
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.VerifiedToken;
+import com.scholar.securitytest.service.RolePermissionService;
+import io.micrometer.observation.Observation;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式技术栈的 JWT 认证，流程与 JwtAuthenticationTokenFilter 一致：
+ * 验证请求头中的 token，按用户ID读取会话，按最新的角色权限快照刷新权限，并登记会话被访问；
+ * 无状态模式下直接由 token 中的声明认证。
+ * 不注册为 Bean，避免与登录使用的 ReactiveAuthenticationManager 冲突。
+ */
+public class JwtReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final JwtTokenCache jwtTokenCache;
+
+    private final ReactiveLoginUserCache reactiveLoginUserCache;
+
+    private final LoginUserCache loginUserCache;
+
+    private final RolePermissionService rolePermissionService;
+
+    private final StatelessAuthenticator statelessAuthenticator;
+
+    private final AuthMetrics authMetrics;
+
+    private final AuthTracer authTracer;
+
+    public JwtReactiveAuthenticationManager(JwtTokenCache jwtTokenCache, ReactiveLoginUserCache reactiveLoginUserCache,
+                                            LoginUserCache loginUserCache, RolePermissionService rolePermissionService,
+                                            StatelessAuthenticator statelessAuthenticator, AuthMetrics authMetrics,
+                                            AuthTracer authTracer) {
+        this.jwtTokenCache = jwtTokenCache;
+        this.reactiveLoginUserCache = reactiveLoginUserCache;
+        this.loginUserCache = loginUserCache;
+        this.rolePermissionService = rolePermissionService;
+        this.statelessAuthenticator = statelessAuthenticator;
+        this.authMetrics = authMetrics;
+        this.authTracer = authTracer;
+    }
+
+    /**
+     * 从请求头中取出 token，作为 AuthenticationWebFilter 的 ServerAuthenticationConverter 使用
+     *
+     * @param exchange 请求
+     * @return 待认证的 token，请求头中没有 token 时为空（匿名访问，由后续授权处理）
+     */
+    public static Mono<Authentication> convert(ServerWebExchange exchange) {
+        String token = exchange.getRequest().getHeaders().getFirst("token");
+        if (!StringUtils.hasText(token)) {
+            return Mono.empty();
+        }
+        return Mono.just(new PreAuthenticatedAuthenticationToken(token, token));
+    }
+
+    /**
+     * 认证请求头中的 token，耗时计入 auth.filter，采样追踪同样以 auth.filter 为根（请求头中没有 token 的请求不经过这里）
+     */
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        long start = System.nanoTime();
+        Observation trace = authTracer.root("auth.filter");
+        return doAuthenticate(authentication, trace)
+                .doOnSuccess(result -> {
+                    authMetrics.recordFilter(AuthMetrics.Outcome.AUTHENTICATED, start);
+                    trace.lowCardinalityKeyValue("outcome", "authenticated").stop();
+                })
+                .doOnError(e -> {
+                    authMetrics.recordFilter(AuthMetrics.Outcome.REJECTED, start);
+                    trace.lowCardinalityKeyValue("outcome", "rejected").error(e);
+                    trace.stop();
+                });
+    }
+
+    private Mono<Authentication> doAuthenticate(Authentication authentication, Observation trace) {
+        VerifiedToken verified;
+        try {
+            // 解析token（优先命中已验证Token缓存），获取用户id（subject），纯 CPU 计算，不阻塞
+            verified = authTracer.trace(trace, "jwt.verify",
+                    () -> jwtTokenCache.verify((String) authentication.getCredentials()));
+        } catch (Exception e) {
+            authMetrics.failure(AuthMetrics.Failure.TOKEN_INVALID);
+            return Mono.error(new BadCredentialsException("token非法"));
+        }
+
+        // 无状态模式：已吊销的token直接拒绝；权限声明的版本与当前快照一致时信任token中的声明，不访问Redis
+        if (statelessAuthenticator.isRevoked(verified)) {
+            authMetrics.failure(AuthMetrics.Failure.TOKEN_REVOKED);
+            return Mono.error(new BadCredentialsException("用户未登录"));
+        }
+        LoginUser claimed = authTracer.trace(trace, "stateless.claims", () -> statelessAuthenticator.authenticate(verified));
+        if (claimed != null) {
+            return Mono.just(authenticated(claimed, verified));
+        }
+
+        String subject = verified.getSubject();
+
+        // 会话在其他线程异步读取，步骤在读取结束时手动结束
+        Observation sessionStep = authTracer.start(trace, "session.load");
+        return reactiveLoginUserCache.get(subject)
+                .doFinally(signal -> sessionStep.stop())
+                .switchIfEmpty(Mono.error(() -> {
+                    authMetrics.failure(AuthMetrics.Failure.SESSION_ABSENT);
+                    return new BadCredentialsException("用户未登录");
+                }))
+                .flatMap(loginUser -> {
+                    // 角色权限快照已更新时，按新快照重新计算权限，只替换本地副本
+                    LoginUser refreshed = rolePermissionService.refreshPermissions(loginUser);
+                    if (refreshed != loginUser) {
+                        loginUserCache.putLocal(subject, refreshed);
+                    }
+                    // 登记会话被访问，有效期由后台批量刷新；已超过绝对超时的会话视为未登录
+                    if (!loginUserCache.touch(subject, refreshed)) {
+                        authMetrics.failure(AuthMetrics.Failure.SESSION_EXPIRED);
+                        return Mono.error(new BadCredentialsException("用户未登录"));
+                    }
+                    return Mono.just(authenticated(refreshed, verified));
+                });
+    }
+
+    /**
+     * 认证结果，details 中保存验签后的token，登出时据此吊销
+     */
+    private static Authentication authenticated(LoginUser loginUser, VerifiedToken verified) {
+        UsernamePasswordAuthenticationToken result =
+                UsernamePasswordAuthenticationToken.authenticated(loginUser, null, loginUser.getAuthorities());
+        result.setDetails(verified);
+        return result;
+    }
+}
@@ -0,0 +1,218 @@
+package com.scholar.securitytest.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.scholar.securitytest.domain.VerifiedToken;
+import com.scholar.securitytest.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已验证 Token 缓存
+ * 以 token 的 SHA-256 摘要为键，缓存验签通过后的声明（subject、exp、jti、iat 及无状态模式下的用户名、权限声明和快照版本）。
+ * 同一个 token 重复访问时只需一次哈希查找，无需再次生成密钥、解析 JWT 和校验签名。
+ * 条目在 token 的 exp 到达时自动淘汰，登出时按用户主动淘汰。
+ * <p>
+ * 验签失败（格式错误、签名不符、已过期，未知的 kid 除外）的 token 摘要另外缓存一小段时间（jwt.token-cache.rejected-ttl），
+ * 配置错误的客户端反复携带同一个无效 token 时，只需一次哈希查找即可拒绝，不再解析和验签。
+ */
+@Component
+public class JwtTokenCache {
+
+    // 复用 MessageDigest，避免每次计算摘要都重新创建；digest 之后自动重置，可直接归还
+    private static final InstancePool<MessageDigest> SHA_256 = new InstancePool<>(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private AuthMetrics authMetrics = AuthMetrics.noop();
+
+    @Autowired
+    private AuthTracer authTracer = AuthTracer.noop();
+
+    private final Cache<String, VerifiedToken> cache;
+
+    // 近期验签失败的 token 摘要
+    private final Cache<String, Boolean> rejected;
+
+    public JwtTokenCache(long maximumSize) {
+        this(maximumSize, 10_000, Duration.ofSeconds(30));
+    }
+
+    @Autowired
+    public JwtTokenCache(@Value("${jwt.token-cache.maximum-size:10000}") long maximumSize,
+                         @Value("${jwt.token-cache.rejected-maximum-size:10000}") long rejectedMaximumSize,
+                         @Value("${jwt.token-cache.rejected-ttl:30s}") Duration rejectedTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)  // 限制最大条目数，防止内存无限增长
+                .expireAfter(new TokenExpiry())  // 按 token 自身的过期时间淘汰
+                .recordStats()  // 记录命中/未命中次数
+                .build();
+        this.rejected = Caffeine.newBuilder()
+                .maximumSize(rejectedMaximumSize)  // 随机伪造的 token 只会互相淘汰，不会无限增长
+                .expireAfterWrite(rejectedTtl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 校验 token 并返回其中的声明，命中缓存时不再进行验签，近期验签失败的 token 直接拒绝。
+     *
+     * @param token JWT 字符串
+     * @return 验签通过的声明
+     * @throws Exception 如果解析或验签失败，抛出异常
+     */
+    public VerifiedToken verify(String token) throws Exception {
+        long start = System.nanoTime();
+        String digest = digest(token);
+        VerifiedToken verified = cache.getIfPresent(digest);
+        if (verified != null) {
+            authMetrics.recordJwtVerify(true, start);
+            return verified;
+        }
+        if (rejected.getIfPresent(digest) != null) {
+            authMetrics.recordJwtVerify(true, start);
+            throw RejectedTokenException.INSTANCE;
+        }
+
+        // 未命中，完整解析并验签（验签失败也计入耗时）
+        try {
+            Claims claims;
+            try {
+                claims = authTracer.trace("jwt.parse", () -> jwtService.parseJWT(token));
+            } catch (JwtKeyRing.UnknownKeyException e) {
+                // 公钥可能稍后加载，不缓存为已拒绝
+                throw e;
+            } catch (Exception e) {
+                rejected.put(digest, Boolean.TRUE);
+                throw e;
+            }
+            if (claims.getExpiration() == null) {
+                // 没有过期时间的 token 不缓存，避免常驻内存
+                return toVerifiedToken(claims, Long.MAX_VALUE);
+            }
+            verified = toVerifiedToken(claims, claims.getExpiration().getTime());
+            cache.put(digest, verified);
+            return verified;
+        } finally {
+            authMetrics.recordJwtVerify(false, start);
+        }
+    }
+
+    private static VerifiedToken toVerifiedToken(Claims claims, long expiration) {
+        Date issuedAt = claims.getIssuedAt();
+        return new VerifiedToken(claims.getSubject(), expiration, claims.getId(),
+                issuedAt == null ? 0 : issuedAt.getTime(),
+                stringClaim(claims, StatelessAuthenticator.CLAIM_USER_NAME),
+                stringClaim(claims, StatelessAuthenticator.CLAIM_PERMISSIONS),
+                stringClaim(claims, StatelessAuthenticator.CLAIM_PERM_VERSION));
+    }
+
+    private static String stringClaim(Claims claims, String name) {
+        return claims.get(name) instanceof String value ? value : null;
+    }
+
+    /**
+     * 淘汰某个用户的全部缓存 token（用于登出）。
+     *
+     * @param subject 用户ID
+     */
+    public void invalidateSubject(String subject) {
+        cache.asMap().values().removeIf(verified -> subject.equals(verified.getSubject()));
+    }
+
+    /**
+     * 获取缓存统计信息（命中次数、未命中次数等）
+     *
+     * @return 缓存统计信息
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 获取验签失败缓存的统计信息，命中次数即未经验签直接拒绝的次数
+     *
+     * @return 缓存统计信息
+     */
+    public CacheStats rejectedStats() {
+        return rejected.stats();
+    }
+
+    /**
+     * 缓存命中次数
+     */
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * 缓存未命中次数
+     */
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * 计算 token 的 SHA-256 摘要，避免在内存中以原文作为键保存 token
+     */
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA_256.acquire();
+        byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+        SHA_256.release(sha256);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * 近期已验签失败的 token，共享一个不含堆栈的实例，拒绝时不分配对象
+     */
+    public static final class RejectedTokenException extends Exception {
+
+        private static final RejectedTokenException INSTANCE = new RejectedTokenException();
+
+        private RejectedTokenException() {
+            super("token 近期已验签失败", null, false, false);
+        }
+    }
+
+    /**
+     * 条目的存活时间等于 token 剩余的有效期
+     */
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.getExpiration() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
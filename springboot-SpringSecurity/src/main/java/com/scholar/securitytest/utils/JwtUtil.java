@@ -14,7 +14,11 @@ import java.util.UUID;
 /**
  * JWT工具类
  * 用于生成、解析和管理JWT（JSON Web Token）
+ *
+ * @deprecated 每次调用都会重新生成密钥和解析器，请注入 {@link com.scholar.securitytest.service.JwtService}；
+ * 保留本类用于兼容和基准对比。
  */
+@Deprecated
 public class JwtUtil {
     // Token 有效期（默认为1小时，单位：毫秒）
     public static final Long JWT_TTL = 60 * 60 * 1000L;
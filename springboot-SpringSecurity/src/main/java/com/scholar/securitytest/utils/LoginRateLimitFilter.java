@@ -0,0 +1,149 @@
+package com.scholar.securitytest.utils;
+
+import com.scholar.securitytest.common.ResponseResult;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 登录限流过滤器，位于 JWT 认证过滤器之前，只处理 POST /user/login。
+ * 先检查 IP 是否已超限，未超限时读取请求体（不超过 max-body-bytes）取出用户名，再按 IP 和用户名限流；
+ * 超限的请求直接返回，不进入密码校验和数据库查询。放行的请求使用缓存的请求体继续处理，控制器照常读取。
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    // 与 ResponseResult 的其他状态码一致，HTTP 状态码仍为 200
+    private static final ResponseWriter.Payload REJECTED = ResponseWriter.payload(
+            new ResponseResult(HttpStatus.TOO_MANY_REQUESTS.value(), "登录尝试过于频繁，请稍后重试"));
+
+    private static final ResponseWriter.Payload TOO_LARGE = ResponseWriter.payload(
+            new ResponseResult(HttpStatus.PAYLOAD_TOO_LARGE.value(), "请求体过大"));
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !loginRateLimiter.isEnabled() || !"POST".equals(request.getMethod())
+                || !"/user/login".equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String ip = request.getRemoteAddr();
+        // IP 已超限时不读取请求体
+        if (loginRateLimiter.isIpLimited(ip)) {
+            reject(response);
+            return;
+        }
+        // 先按 Content-Length 拒绝，分块传输等没有长度的请求最多读取上限加一个字节
+        int maxBodyBytes = loginRateLimiter.maxBodyBytes();
+        byte[] body = request.getContentLengthLong() > maxBodyBytes
+                ? null : request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body == null || body.length > maxBodyBytes) {
+            ResponseWriter.write(response, TOO_LARGE);
+            return;
+        }
+        if (loginRateLimiter.tryAcquire(ip, LoginRateLimiter.usernameOf(body)) != LoginRateLimiter.Decision.ALLOWED) {
+            reject(response);
+            return;
+        }
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        authMetrics.failure(AuthMetrics.Failure.LOGIN_THROTTLED);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(loginRateLimiter.retryAfterSeconds()));
+        ResponseWriter.write(response, REJECTED);
+    }
+
+    /**
+     * 请求体已被读取，之后从缓存的字节中重新读取
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // 数据已全部在内存中，注册后立即通知可读和读取完毕
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
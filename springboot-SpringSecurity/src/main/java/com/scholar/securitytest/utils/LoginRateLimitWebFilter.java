@@ -0,0 +1,104 @@
+package com.scholar.securitytest.utils;
+
+import com.scholar.securitytest.common.ResponseResult;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Optional;
+
+/**
+ * 响应式技术栈的登录限流过滤器，规则与 LoginRateLimitFilter 一致：先检查 IP，再读取有大小上限的请求体。
+ * 不注册为 Bean，避免 WebFlux 把它加入全局过滤链后重复执行，由 ReactiveSecurityConfig 加在认证过滤器之前。
+ */
+public class LoginRateLimitWebFilter implements WebFilter {
+
+    private static final ResponseWriter.Payload REJECTED = ResponseWriter.payload(
+            new ResponseResult(HttpStatus.TOO_MANY_REQUESTS.value(), "登录尝试过于频繁，请稍后重试"));
+
+    private static final ResponseWriter.Payload TOO_LARGE = ResponseWriter.payload(
+            new ResponseResult(HttpStatus.PAYLOAD_TOO_LARGE.value(), "请求体过大"));
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    private final AuthMetrics authMetrics;
+
+    public LoginRateLimitWebFilter(LoginRateLimiter loginRateLimiter, AuthMetrics authMetrics) {
+        this.loginRateLimiter = loginRateLimiter;
+        this.authMetrics = authMetrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!loginRateLimiter.isEnabled() || request.getMethod() != HttpMethod.POST
+                || !"/user/login".equals(request.getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String ip = remoteAddress == null ? "unknown" : remoteAddress.getHostString();
+        int maxBodyBytes = loginRateLimiter.maxBodyBytes();
+        return loginRateLimiter.isIpLimitedReactive(ip).flatMap(ipLimited -> {
+            // IP 已超限时不读取请求体
+            if (ipLimited) {
+                return reject(exchange);
+            }
+            if (request.getHeaders().getContentLength() > maxBodyBytes) {
+                return ResponseWriter.write(exchange.getResponse(), TOO_LARGE);
+            }
+            // 没有 Content-Length 的请求在累计超过上限时抛出 DataBufferLimitException（已读取的缓冲区由 join 释放），
+            // 只在读取请求体这一步转换为空，不影响之后的过滤器和控制器
+            return DataBufferUtils.join(request.getBody(), maxBodyBytes)
+                    .map(buffer -> {
+                        byte[] body = new byte[buffer.readableByteCount()];
+                        buffer.read(body);
+                        DataBufferUtils.release(buffer);
+                        return Optional.of(body);
+                    })
+                    .defaultIfEmpty(Optional.of(new byte[0]))
+                    .onErrorReturn(DataBufferLimitException.class, Optional.empty())
+                    .flatMap(read -> read.isPresent()
+                            ? acquire(exchange, chain, ip, read.get())
+                            : ResponseWriter.write(exchange.getResponse(), TOO_LARGE));
+        });
+    }
+
+    /**
+     * 按 IP 和用户名限流，放行时用缓存的请求体继续处理
+     */
+    private Mono<Void> acquire(ServerWebExchange exchange, WebFilterChain chain, String ip, byte[] body) {
+        ServerHttpRequest request = exchange.getRequest();
+        return loginRateLimiter.tryAcquireReactive(ip, LoginRateLimiter.usernameOf(body))
+                .flatMap(decision -> {
+                    if (decision != LoginRateLimiter.Decision.ALLOWED) {
+                        return reject(exchange);
+                    }
+                    // 请求体已被读取，之后从缓存的字节中重新读取
+                    ServerHttpRequest cached = new ServerHttpRequestDecorator(request) {
+                        @Override
+                        public Flux<DataBuffer> getBody() {
+                            return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+                        }
+                    };
+                    return chain.filter(exchange.mutate().request(cached).build());
+                });
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        authMetrics.failure(AuthMetrics.Failure.LOGIN_THROTTLED);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(loginRateLimiter.retryAfterSeconds()));
+        return ResponseWriter.write(exchange.getResponse(), REJECTED);
+    }
+}
@@ -0,0 +1,365 @@
+package com.scholar.securitytest.utils;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 登录限流：按客户端 IP 和用户名分别限制单位时间内的登录次数，超出时在密码校验和数据库查询之前拒绝。
+ * <p>
+ * 使用滑动窗口计数：只保存当前窗口和上一个窗口的计数，估算值 = 上一窗口计数 × 上一窗口仍在滑动窗口内的比例 + 当前窗口计数。
+ * 默认在本地计数，每个键的两个计数与窗口编号打包在一个 AtomicLong 中，通过 CAS 更新，无锁；
+ * 开启 cluster 后改为在 Redis 中用 Lua 脚本原子地检查并累加，整个集群共用限额，Redis 不可用时退回本地计数。
+ * 被拒绝的请求不计数，攻击停止后一个窗口内即可恢复。
+ * <p>
+ * 过滤器在读取请求体之前先用 isIpLimited 检查 IP 是否已超限，超限的客户端不再读取和解析请求体；
+ * 请求体的大小不超过 max-body-bytes，登录请求只有用户名和密码，超过的直接拒绝。
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    /**
+     * 限流结果
+     */
+    public enum Decision {
+        ALLOWED, IP_LIMITED, USER_LIMITED
+    }
+
+    private static final String KEY_PREFIX = "ratelimit:login:";
+
+    // 本地计数的打包格式：高 32 位为窗口编号，中间 16 位为上一窗口计数，低 16 位为当前窗口计数
+    private static final long COUNT_MASK = 0xFFFF;
+
+    // 检查并累加脚本：KEYS[1..2] IP 的当前、上一窗口，KEYS[3..4] 用户名的当前、上一窗口（没有用户名时为空串）；
+    // ARGV[1] IP 限额，ARGV[2] 用户名限额，ARGV[3] 窗口长度（毫秒），ARGV[4] 当前窗口已过去的毫秒数。
+    // 返回 0 放行，1 IP 超限，2 用户名超限；超限时不累加。键分布在不同的槽位，只适用于单节点 Redis
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+            local window = tonumber(ARGV[3])
+            local weight = (window - tonumber(ARGV[4])) / window
+            local function exceeded(current, previous, limit)
+                local count = tonumber(redis.call('GET', previous) or '0') * weight
+                        + tonumber(redis.call('GET', current) or '0')
+                return count >= limit
+            end
+            if exceeded(KEYS[1], KEYS[2], tonumber(ARGV[1])) then
+                return 1
+            end
+            if KEYS[3] ~= '' and exceeded(KEYS[3], KEYS[4], tonumber(ARGV[2])) then
+                return 2
+            end
+            redis.call('INCR', KEYS[1])
+            redis.call('PEXPIRE', KEYS[1], window * 2)
+            if KEYS[3] ~= '' then
+                redis.call('INCR', KEYS[3])
+                redis.call('PEXPIRE', KEYS[3], window * 2)
+            end
+            return 0
+            """, Long.class);
+
+    // 只检查 IP 是否超限，不累加：KEYS[1..2] IP 的当前、上一窗口；ARGV 同上。返回 1 超限，0 未超限
+    private static final RedisScript<Long> PEEK_SCRIPT = new DefaultRedisScript<>("""
+            local window = tonumber(ARGV[3])
+            local weight = (window - tonumber(ARGV[4])) / window
+            local count = tonumber(redis.call('GET', KEYS[2]) or '0') * weight
+                    + tonumber(redis.call('GET', KEYS[1]) or '0')
+            if count >= tonumber(ARGV[1]) then
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    private final boolean enabled;
+
+    private final boolean cluster;
+
+    private final long windowMillis;
+
+    private final int ipLimit;
+
+    private final int userLimit;
+
+    private final int maxBodyBytes;
+
+    // 本地计数，键为 "ip:地址" 或 "user:用户名"；两个窗口内没有访问的键自动淘汰，容量有上限，伪造大量 IP 也不会耗尽内存
+    private final Cache<String, AtomicLong> counters;
+
+    public LoginRateLimiter(@Value("${security.login.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${security.login.rate-limit.cluster:false}") boolean cluster,
+                            @Value("${security.login.rate-limit.window:1m}") Duration window,
+                            @Value("${security.login.rate-limit.per-ip:20}") int ipLimit,
+                            @Value("${security.login.rate-limit.per-user:5}") int userLimit,
+                            @Value("${security.login.rate-limit.maximum-keys:100000}") long maximumKeys,
+                            @Value("${security.login.rate-limit.max-body-bytes:4096}") int maxBodyBytes) {
+        this.enabled = enabled;
+        this.cluster = cluster;
+        this.windowMillis = window.toMillis();
+        this.ipLimit = Math.min(ipLimit, (int) COUNT_MASK);
+        this.userLimit = Math.min(userLimit, (int) COUNT_MASK);
+        this.maxBodyBytes = maxBodyBytes;
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(window.multipliedBy(2))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 登录请求体的最大字节数，超过时不读取，直接拒绝
+     */
+    public int maxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    /**
+     * 被拒绝后建议的重试间隔（秒），即一个窗口的长度
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1, windowMillis / 1000);
+    }
+
+    /**
+     * 检查并记录一次登录尝试（Servlet 技术栈，集群模式下同步访问 Redis）
+     *
+     * @param ip       客户端 IP
+     * @param username 用户名，无法解析时为 null，只按 IP 限流
+     * @return 限流结果，放行时已计数
+     */
+    public Decision tryAcquire(String ip, String username) {
+        if (!enabled) {
+            return Decision.ALLOWED;
+        }
+        if (cluster) {
+            long now = System.currentTimeMillis();
+            try {
+                return decisionOf(stringRedisTemplate.execute(ACQUIRE_SCRIPT, keys(ip, username, now),
+                        args(now).toArray()));
+            } catch (DataAccessException e) {
+                log.warn("登录限流访问 Redis 失败，改用本地计数：{}", e.getMessage());
+            }
+        }
+        return tryAcquireLocal(ip, username, System.currentTimeMillis());
+    }
+
+    /**
+     * 只检查 IP 是否已超限，不计数（Servlet 技术栈，集群模式下同步访问 Redis）
+     *
+     * @param ip 客户端 IP
+     * @return 已超限时返回 true
+     */
+    public boolean isIpLimited(String ip) {
+        if (!enabled) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (cluster) {
+            try {
+                Long result = stringRedisTemplate.execute(PEEK_SCRIPT, peekKeys(ip, now), args(now).toArray());
+                return result != null && result == 1;
+            } catch (DataAccessException e) {
+                log.warn("登录限流访问 Redis 失败，改用本地计数：{}", e.getMessage());
+            }
+        }
+        return isIpLimitedLocal(ip, now);
+    }
+
+    /**
+     * 只检查 IP 是否已超限，不计数（响应式技术栈，集群模式下异步访问 Redis）
+     *
+     * @param ip 客户端 IP
+     * @return 已超限时返回 true
+     */
+    public Mono<Boolean> isIpLimitedReactive(String ip) {
+        if (!enabled) {
+            return Mono.just(false);
+        }
+        long now = System.currentTimeMillis();
+        if (!cluster) {
+            return Mono.just(isIpLimitedLocal(ip, now));
+        }
+        return reactiveStringRedisTemplate.execute(PEEK_SCRIPT, peekKeys(ip, now), args(now))
+                .next()
+                .map(result -> result == 1)
+                .defaultIfEmpty(false)
+                .onErrorResume(DataAccessException.class, e -> {
+                    log.warn("登录限流访问 Redis 失败，改用本地计数：{}", e.getMessage());
+                    return Mono.just(isIpLimitedLocal(ip, now));
+                });
+    }
+
+    /**
+     * 检查并记录一次登录尝试（响应式技术栈，集群模式下异步访问 Redis）
+     *
+     * @param ip       客户端 IP
+     * @param username 用户名，无法解析时为 null，只按 IP 限流
+     * @return 限流结果，放行时已计数
+     */
+    public Mono<Decision> tryAcquireReactive(String ip, String username) {
+        if (!enabled) {
+            return Mono.just(Decision.ALLOWED);
+        }
+        if (!cluster) {
+            return Mono.just(tryAcquireLocal(ip, username, System.currentTimeMillis()));
+        }
+        long now = System.currentTimeMillis();
+        return reactiveStringRedisTemplate.execute(ACQUIRE_SCRIPT, keys(ip, username, now), args(now))
+                .next()
+                .map(LoginRateLimiter::decisionOf)
+                .onErrorResume(DataAccessException.class, e -> {
+                    log.warn("登录限流访问 Redis 失败，改用本地计数：{}", e.getMessage());
+                    return Mono.just(tryAcquireLocal(ip, username, now));
+                });
+    }
+
+    /**
+     * 从登录请求体中取出用户名，统一为小写，避免通过大小写变化绕过限流
+     *
+     * @param body 请求体（JSON）
+     * @return 用户名，请求体不是 JSON 或没有用户名时返回 null
+     */
+    public static String usernameOf(byte[] body) {
+        try {
+            JSONObject json = JSON.parseObject(new String(body, StandardCharsets.UTF_8));
+            String username = json == null ? null : json.getString("userName");
+            return username == null || username.isBlank() ? null : username.trim().toLowerCase(Locale.ROOT);
+        } catch (RuntimeException e) {
+            return null;  // 格式错误的请求由控制器处理，这里只按 IP 限流
+        }
+    }
+
+    /**
+     * 按本地计数检查并记录一次登录尝试
+     *
+     * @param ip       客户端 IP
+     * @param username 用户名，为 null 时只按 IP 限流
+     * @param now      当前时间（毫秒时间戳）
+     * @return 限流结果，放行时已计数
+     */
+    public Decision tryAcquireLocal(String ip, String username, long now) {
+        long window = now / windowMillis;
+        double weight = (double) (windowMillis - now % windowMillis) / windowMillis;
+        AtomicLong ipCounter = counters.get("ip:" + ip, key -> new AtomicLong());
+        AtomicLong userCounter = username == null ? null : counters.get("user:" + username, key -> new AtomicLong());
+        // 先检查两个键都未超限再累加，避免被用户名限流拒绝的请求占用 IP 的额度
+        if (estimate(ipCounter.get(), window, weight) >= ipLimit) {
+            return Decision.IP_LIMITED;
+        }
+        if (userCounter != null && !increment(userCounter, window, weight, userLimit)) {
+            return Decision.USER_LIMITED;
+        }
+        if (!increment(ipCounter, window, weight, ipLimit)) {
+            return Decision.IP_LIMITED;
+        }
+        return Decision.ALLOWED;
+    }
+
+    /**
+     * 按本地计数只检查 IP 是否已超限，不计数，也不为新的 IP 创建计数
+     *
+     * @param ip  客户端 IP
+     * @param now 当前时间（毫秒时间戳）
+     * @return 已超限时返回 true
+     */
+    public boolean isIpLimitedLocal(String ip, long now) {
+        AtomicLong ipCounter = counters.getIfPresent("ip:" + ip);
+        return ipCounter != null && estimate(ipCounter.get(), now / windowMillis,
+                (double) (windowMillis - now % windowMillis) / windowMillis) >= ipLimit;
+    }
+
+    /**
+     * 未超限时累加当前窗口计数，超限时不修改
+     */
+    private static boolean increment(AtomicLong counter, long window, double weight, int limit) {
+        while (true) {
+            long packed = counter.get();
+            if (estimate(packed, window, weight) >= limit) {
+                return false;
+            }
+            long stored = packed >>> 32;
+            long previous;
+            long current;
+            if (stored == (window & 0xFFFFFFFFL)) {
+                previous = (packed >>> 16) & COUNT_MASK;
+                current = packed & COUNT_MASK;
+            } else if (stored == ((window - 1) & 0xFFFFFFFFL)) {
+                previous = packed & COUNT_MASK;
+                current = 0;
+            } else {
+                previous = 0;
+                current = 0;
+            }
+            long next = ((window & 0xFFFFFFFFL) << 32) | (previous << 16) | Math.min(current + 1, COUNT_MASK);
+            if (counter.compareAndSet(packed, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 滑动窗口内的估算计数
+     */
+    private static double estimate(long packed, long window, double weight) {
+        long stored = packed >>> 32;
+        if (stored == (window & 0xFFFFFFFFL)) {
+            return ((packed >>> 16) & COUNT_MASK) * weight + (packed & COUNT_MASK);
+        }
+        if (stored == ((window - 1) & 0xFFFFFFFFL)) {
+            return (packed & COUNT_MASK) * weight;  // 当前窗口尚无计数，存储的当前窗口已成为上一窗口
+        }
+        return 0;
+    }
+
+    private List<String> keys(String ip, String username, long now) {
+        long window = now / windowMillis;
+        String ipKey = KEY_PREFIX + "ip:" + ip + ":";
+        if (username == null) {
+            return List.of(ipKey + window, ipKey + (window - 1), "", "");
+        }
+        String userKey = KEY_PREFIX + "user:" + username + ":";
+        return List.of(ipKey + window, ipKey + (window - 1), userKey + window, userKey + (window - 1));
+    }
+
+    private List<String> peekKeys(String ip, long now) {
+        long window = now / windowMillis;
+        String ipKey = KEY_PREFIX + "ip:" + ip + ":";
+        return List.of(ipKey + window, ipKey + (window - 1));
+    }
+
+    private List<String> args(long now) {
+        return List.of(String.valueOf(ipLimit), String.valueOf(userLimit), String.valueOf(windowMillis),
+                String.valueOf(now % windowMillis));
+    }
+
+    private static Decision decisionOf(Long result) {
+        if (result == null || result == 0) {
+            return Decision.ALLOWED;
+        }
+        return result == 1 ? Decision.IP_LIMITED : Decision.USER_LIMITED;
+    }
+}
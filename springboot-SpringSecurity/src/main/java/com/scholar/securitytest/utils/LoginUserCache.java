@@ -0,0 +1,333 @@
+package com.scholar.securitytest.utils;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.scholar.securitytest.config.SessionTimeoutProperties;
+import com.scholar.securitytest.domain.LoginUser;
+import io.micrometer.observation.Observation;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 登录用户的两级缓存
+ * 一级为本地的 Caffeine 缓存（按容量和存活时间淘汰），二级为 Redis 中的 "login:userId" 键。
+ * 本地命中时无需访问 Redis 和反序列化；登出时通过 Redis 发布/订阅通知所有节点淘汰本地副本。
+ * <p>
+ * Redis 中的会话按空闲超时滑动过期，并受绝对超时限制。为避免每个请求都写一次 Redis，
+ * 请求只在本地登记会话被访问，由后台任务定期通过管道批量刷新有效期。
+ */
+@Slf4j
+@Component
+public class LoginUserCache implements MessageListener {
+
+    // Redis 中登录用户信息的键前缀
+    public static final String KEY_PREFIX = "login:";
+
+    // 本地缓存失效通知的频道，消息内容为用户ID
+    public static final String INVALIDATION_CHANNEL = "login:invalidate";
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private RedisMultiGetBatcher redisMultiGetBatcher;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private SessionTimeoutProperties sessionTimeoutProperties;
+
+    @Autowired
+    private AuthMetrics authMetrics = AuthMetrics.noop();
+
+    @Autowired
+    private AuthTracer authTracer = AuthTracer.noop();
+
+    // 待刷新有效期的会话：用户ID → 有效期（毫秒），同一用户多次访问只保留最新的一次
+    private final Map<String, Long> pendingTouches = new ConcurrentHashMap<>();
+
+    // 异步缓存：本地未命中时只在映射中登记一个 future，Redis 查询在锁外完成。
+    // 同步的 Cache.get 会在 ConcurrentHashMap 的桶锁（synchronized）内执行加载，
+    // 虚拟线程在其中等待 Redis 时会钉住载体线程
+    private final AsyncCache<String, LoginUser> asyncCache;
+
+    // 异步缓存的同步视图，供写入、淘汰等不涉及加载的操作使用
+    private final Cache<String, LoginUser> localCache;
+
+    public LoginUserCache(@Value("${session.near-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${session.near-cache.ttl:30s}") Duration ttl) {
+        this.asyncCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)  // 限制本地缓存的最大条目数
+                .expireAfterWrite(ttl)  // 存活时间兜底，即使丢失失效通知也只会短暂读到旧数据
+                .recordStats()
+                .buildAsync();
+        this.localCache = asyncCache.synchronous();
+    }
+
+    /**
+     * 获取登录用户信息，本地未命中时从 Redis 加载。
+     *
+     * @param userId 用户ID
+     * @return 登录用户信息，不存在时返回 null
+     */
+    public LoginUser get(String userId) {
+        // 加载过程中到达的失效通知会移除进行中的 future，加载结果不会再写入本地缓存
+        // 并发的本地未命中合并为一条 MGET 查询 Redis，调用线程在缓存的锁外等待结果
+        // 采样追踪中的 session.redis 包含合并等待、MGET 和反序列化：同一批请求共用一条 MGET，无法再按请求拆分
+        CompletableFuture<LoginUser> future = asyncCache.get(userId, (id, executor) -> {
+            long start = System.nanoTime();
+            Observation step = authTracer.start("session.redis");
+            return redisMultiGetBatcher.<LoginUser>getAsync(KEY_PREFIX + id, executor)
+                    .whenComplete((loaded, e) -> {
+                        authMetrics.recordSessionFetch(loaded != null, e, start);
+                        if (e != null) {
+                            step.error(e);
+                        }
+                        step.lowCardinalityKeyValue("found", String.valueOf(loaded != null)).stop();
+                    });
+        });
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // 还原为 Redis 操作抛出的原始异常，加载失败的 future 会被自动移除
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 获取登录用户信息，本地未命中时由调用方提供的异步加载（响应式技术栈的 Redis 查询）填充本地缓存。
+     * 与 get 一样，加载过程中到达的失效通知会移除进行中的 future，加载结果不会再写入本地缓存。
+     *
+     * @param userId 用户ID
+     * @param loader 本地未命中时的异步加载，结果为 null 表示会话不存在
+     * @return 登录用户信息的 future，同一用户并发的未命中共用一个 future
+     */
+    public CompletableFuture<LoginUser> getAsync(String userId,
+                                                 Function<String, CompletableFuture<LoginUser>> loader) {
+        return asyncCache.get(userId, (id, executor) -> loader.apply(id));
+    }
+
+    /**
+     * 只查询本地缓存，不访问 Redis（响应式技术栈在本地未命中时自行异步查询 Redis）
+     *
+     * @param userId 用户ID
+     * @return 登录用户信息，本地没有时返回 null
+     */
+    public LoginUser getIfPresent(String userId) {
+        // 不等待进行中的加载，避免阻塞事件循环线程
+        CompletableFuture<LoginUser> future = asyncCache.getIfPresent(userId);
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    /**
+     * 保存登录用户信息到 Redis 和本地缓存
+     *
+     * @param userId    用户ID
+     * @param loginUser 登录用户信息
+     */
+    public void put(String userId, LoginUser loginUser) {
+        long ttl = ttlMillis(loginUser, System.currentTimeMillis());
+        redisCache.setCacheObject(KEY_PREFIX + userId, loginUser, (int) Math.min(ttl, Integer.MAX_VALUE),
+                TimeUnit.MILLISECONDS);
+        localCache.put(userId, loginUser);
+    }
+
+    /**
+     * 记录会话被访问，有效期由后台任务批量刷新
+     *
+     * @param userId    用户ID
+     * @param loginUser 登录用户信息
+     * @return 会话是否仍在有效期内；超过绝对超时返回 false
+     */
+    public boolean touch(String userId, LoginUser loginUser) {
+        long ttl = ttlMillis(loginUser, System.currentTimeMillis());
+        if (ttl <= 0) {
+            // Redis 中的会话也会在同一时刻过期，这里只需淘汰本地副本
+            pendingTouches.remove(userId);
+            localCache.invalidate(userId);
+            return false;
+        }
+        pendingTouches.put(userId, ttl);
+        return true;
+    }
+
+    /**
+     * 通过管道批量刷新已访问会话的有效期
+     */
+    @Scheduled(fixedDelayString = "${session.touch.flush-interval:PT5S}")
+    public void flushTouches() {
+        if (pendingTouches.isEmpty()) {
+            return;
+        }
+        Map<String, Long> timeouts = new HashMap<>();
+        for (String userId : pendingTouches.keySet()) {
+            Long ttl = pendingTouches.remove(userId);
+            if (ttl != null) {
+                timeouts.put(KEY_PREFIX + userId, ttl);
+            }
+        }
+        try {
+            redisCache.expireAll(timeouts);
+        } catch (DataAccessException e) {
+            // 刷新失败只会让会话按上一次的有效期过期，下一次访问会重新登记
+            log.warn("刷新 {} 个会话的有效期失败：{}", timeouts.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 停机前刷新尚未提交的有效期
+     */
+    @PreDestroy
+    public void destroy() {
+        flushTouches();
+    }
+
+    /**
+     * 批量获取登录用户信息，本地未命中的部分通过一条 MGET 从 Redis 加载
+     *
+     * @param userIds 用户ID
+     * @return 用户ID与登录用户信息，不存在的用户不包含在结果中
+     */
+    public Map<String, LoginUser> getAll(Collection<String> userIds) {
+        return localCache.getAll(userIds, ids -> {
+            List<String> missing = new ArrayList<>(ids.size());
+            List<String> keys = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                missing.add(id);
+                keys.add(KEY_PREFIX + id);
+            }
+            List<LoginUser> values = redisCache.getMultiCacheObject(keys);
+            Map<String, LoginUser> loaded = new HashMap<>();
+            for (int i = 0; i < missing.size(); i++) {
+                LoginUser loginUser = values == null ? null : values.get(i);
+                if (loginUser != null) {
+                    loaded.put(missing.get(i), loginUser);
+                }
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * 只替换本节点的本地副本，不写入 Redis（例如按最新的角色权限快照刷新了权限）
+     *
+     * @param userId    用户ID
+     * @param loginUser 登录用户信息
+     */
+    public void putLocal(String userId, LoginUser loginUser) {
+        localCache.put(userId, loginUser);
+    }
+
+    /**
+     * 删除登录用户信息，并通知所有节点淘汰本地副本
+     *
+     * @param userId 用户ID
+     */
+    public void evict(String userId) {
+        redisCache.deleteObject(KEY_PREFIX + userId);
+        localCache.invalidate(userId);
+        stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, userId);
+    }
+
+    /**
+     * 批量删除登录用户信息（UNLINK），并通过一次管道通知所有节点淘汰本地副本
+     *
+     * @param userIds 用户ID
+     * @return 删除的会话数
+     */
+    public long evictAll(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        List<String> keys = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            keys.add(KEY_PREFIX + userId);
+        }
+        long evicted = redisCache.unlink(keys);
+        localCache.invalidateAll(userIds);
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                for (String userId : userIds) {
+                    operations.convertAndSend(INVALIDATION_CHANNEL, userId);
+                }
+                return null;
+            }
+        });
+        return evicted;
+    }
+
+    /**
+     * 只淘汰本节点的本地副本
+     *
+     * @param userId 用户ID
+     */
+    public void evictLocal(String userId) {
+        localCache.invalidate(userId);
+    }
+
+    /**
+     * 计算会话剩余有效期：空闲超时与绝对超时剩余时间中的较小者，用户类型决定使用哪一组超时配置
+     *
+     * @param loginUser 登录用户信息
+     * @param now       当前时间（毫秒时间戳）
+     * @return 剩余有效期（毫秒），小于等于 0 表示已超过绝对超时
+     */
+    public long ttlMillis(LoginUser loginUser, long now) {
+        String tenant = loginUser.getUser() == null ? null : loginUser.getUser().getType();
+        long idle = sessionTimeoutProperties.idleOf(tenant).toMillis();
+        Long loginTime = loginUser.getLoginTime();
+        if (loginTime == null) {
+            return idle;  // 旧会话没有登录时间，只按空闲超时过期
+        }
+        long remaining = loginTime + sessionTimeoutProperties.absoluteOf(tenant).toMillis() - now;
+        return Math.min(idle, remaining);
+    }
+
+    /**
+     * 获取本地缓存统计信息
+     *
+     * @return 缓存统计信息
+     */
+    public CacheStats stats() {
+        return localCache.stats();
+    }
+
+    /**
+     * 收到其他节点（或本节点）发布的失效通知，淘汰本地副本
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        evictLocal(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+}
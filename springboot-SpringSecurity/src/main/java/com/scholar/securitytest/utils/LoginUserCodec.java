@@ -0,0 +1,306 @@
+package com.scholar.securitytest.utils;
+
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * LoginUser 的紧凑二进制编解码器
+ * 与 FastJSON 相比不写类名和字段名，不依赖 autotype 反射，也不保存密码哈希；
+ * 字符串以 “变长长度 + UTF-8 字节” 写入，权限直接写入权限标识。
+ * <p>
+ * 格式（版本 4）：
+ * <pre>
+ * MAGIC(1) VERSION(1)
+ * 字段存在位图(varint) 各个非空字段
+ * 权限个数(varint) 每个权限标识(字符串)
+ * 角色个数 + 1(varint，0 表示没有角色信息) 每个角色ID(zigzag)
+ * 快照版本是否存在(1) 快照版本(字符串)
+ * 登录时间 + 1(varint，0 表示没有登录时间)
+ * </pre>
+ * 会话保存在共享的 Redis 中，不能写入 AuthorityRegistry 的权限ID：这些ID按本进程遇到权限的顺序分配，
+ * 在其他节点、重启后或新增菜单后含义都可能不同。
+ * 只读取当前版本，其他版本与无法识别的数据一样抛出异常；
+ * 从 JSON 滚动升级时先以 session.codec.write-binary=false 部署全部节点。
+ */
+public final class LoginUserCodec {
+
+    // 首字节，JSON 不会以该字节开头，用于区分二进制和旧的 JSON 格式
+    public static final byte MAGIC = (byte) 0xB5;
+
+    // 当前格式版本
+    public static final byte VERSION = 4;
+
+    // User 各字段在存在位图中的位置
+    private static final int ID = 0, USER_NAME = 1, NICK_NAME = 2, TYPE = 3, STATUS = 4, EMAIL = 5,
+            PHONENUMBER = 6, SEX = 7, AVATAR = 8, CREATE_BY = 9, CREATE_TIME = 10, UPDATE_BY = 11,
+            UPDATE_TIME = 12, DEL_FLAG = 13;
+
+    private LoginUserCodec() {
+    }
+
+    /**
+     * 判断字节数组是否为本编解码器的格式
+     *
+     * @param bytes 字节数组
+     * @return 是否为二进制格式
+     */
+    public static boolean isBinary(byte[] bytes) {
+        return bytes != null && bytes.length > 1 && bytes[0] == MAGIC;
+    }
+
+    /**
+     * 编码 LoginUser
+     *
+     * @param loginUser 登录用户
+     * @return 字节数组
+     */
+    public static byte[] encode(LoginUser loginUser) {
+        Writer out = new Writer(128);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+
+        writeUser(out, loginUser.getUser());
+
+        List<String> permissions = loginUser.getPermissions() == null ? List.of() : loginUser.getPermissions();
+        int count = 0;
+        for (String permission : permissions) {
+            if (permission != null) {
+                count++;
+            }
+        }
+        out.writeVarLong(count);
+        for (String permission : permissions) {
+            if (permission != null) {
+                out.writeString(permission);
+            }
+        }
+
+        List<Long> roleIds = loginUser.getRoleIds();
+        if (roleIds == null) {
+            out.writeVarLong(0);
+        } else {
+            out.writeVarLong(roleIds.size() + 1L);
+            for (Long roleId : roleIds) {
+                out.writeZigZag(roleId);
+            }
+        }
+        String permVersion = loginUser.getPermVersion();
+        out.writeByte(permVersion == null ? 0 : 1);
+        if (permVersion != null) {
+            out.writeString(permVersion);
+        }
+        Long loginTime = loginUser.getLoginTime();
+        out.writeVarLong(loginTime == null ? 0 : loginTime + 1);
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码 LoginUser
+     *
+     * @param bytes 字节数组
+     * @return 登录用户
+     */
+    public static LoginUser decode(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        if (in.readByte() != MAGIC) {
+            throw new IllegalArgumentException("不是 LoginUser 二进制格式");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("不支持的 LoginUser 格式版本：" + version);
+        }
+
+        User user = readUser(in);
+
+        int count = (int) in.readVarLong();
+        List<String> permissions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            permissions.add(in.readString());
+        }
+        LoginUser loginUser = new LoginUser(user, permissions);
+
+        int roleCount = (int) in.readVarLong() - 1;
+        if (roleCount >= 0) {
+            List<Long> roleIds = new ArrayList<>(roleCount);
+            for (int i = 0; i < roleCount; i++) {
+                roleIds.add(in.readZigZag());
+            }
+            loginUser.setRoleIds(roleIds);
+        }
+        if (in.readByte() != 0) {
+            loginUser.setPermVersion(in.readString());
+        }
+        long loginTime = in.readVarLong() - 1;
+        if (loginTime >= 0) {
+            loginUser.setLoginTime(loginTime);
+        }
+        return loginUser;
+    }
+
+    private static void writeUser(Writer out, User user) {
+        if (user == null) {
+            out.writeVarLong(-1L >>> 1);  // 全部位为 1 且不会与正常位图冲突，表示 user 为 null
+            return;
+        }
+        long present = 0;
+        Object[] fields = {user.getId(), user.getUserName(), user.getNickName(), user.getType(), user.getStatus(),
+                user.getEmail(), user.getPhonenumber(), user.getSex(), user.getAvatar(), user.getCreateBy(),
+                user.getCreateTime(), user.getUpdateBy(), user.getUpdateTime(), user.getDelFlag()};
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                present |= 1L << i;
+            }
+        }
+        out.writeVarLong(present);
+        for (int i = 0; i < fields.length; i++) {
+            Object field = fields[i];
+            if (field == null) {
+                continue;
+            }
+            switch (i) {
+                case ID, CREATE_BY, UPDATE_BY -> out.writeZigZag((Long) field);
+                case DEL_FLAG -> out.writeZigZag((Integer) field);
+                case CREATE_TIME, UPDATE_TIME -> {
+                    LocalDateTime time = (LocalDateTime) field;
+                    out.writeZigZag(time.toEpochSecond(ZoneOffset.UTC));
+                    out.writeVarLong(time.getNano());
+                }
+                default -> out.writeString((String) field);
+            }
+        }
+    }
+
+    private static User readUser(Reader in) {
+        long present = in.readVarLong();
+        if (present == -1L >>> 1) {
+            return null;
+        }
+        User user = new User();
+        for (int i = 0; i <= DEL_FLAG; i++) {
+            if ((present & (1L << i)) == 0) {
+                continue;
+            }
+            switch (i) {
+                case ID -> user.setId(in.readZigZag());
+                case USER_NAME -> user.setUserName(in.readString());
+                case NICK_NAME -> user.setNickName(in.readString());
+                case TYPE -> user.setType(in.readString());
+                case STATUS -> user.setStatus(in.readString());
+                case EMAIL -> user.setEmail(in.readString());
+                case PHONENUMBER -> user.setPhonenumber(in.readString());
+                case SEX -> user.setSex(in.readString());
+                case AVATAR -> user.setAvatar(in.readString());
+                case CREATE_BY -> user.setCreateBy(in.readZigZag());
+                case CREATE_TIME -> user.setCreateTime(readTime(in));
+                case UPDATE_BY -> user.setUpdateBy(in.readZigZag());
+                case UPDATE_TIME -> user.setUpdateTime(readTime(in));
+                case DEL_FLAG -> user.setDelFlag((int) in.readZigZag());
+                default -> throw new IllegalStateException();
+            }
+        }
+        return user;
+    }
+
+    private static LocalDateTime readTime(Reader in) {
+        long epochSecond = in.readZigZag();
+        int nano = (int) in.readVarLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    /**
+     * 可自动扩容的字节写入器
+     */
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    /**
+     * 字节读取器
+     */
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("变长整数格式错误");
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.scholar.securitytest.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希专用线程池
+ * BCrypt 校验是纯 CPU 计算，放在 Tomcat 工作线程中执行时，登录高峰会占满工作线程拖垮其他接口。
+ * 这里用固定并行度的线程池和有界队列执行哈希计算：队列满时立即拒绝，而不是让请求排队等待。
+ * <p>
+ * 指标：
+ * auth.password.executor.queue（排队任务数）、auth.password.executor.active（执行中的任务数）、
+ * auth.password.executor.rejected（被拒绝的任务数）、auth.password.executor.wait（排队耗时）、
+ * auth.password.hash（哈希任务执行耗时）
+ */
+@Component
+public class PasswordHashingExecutor implements Executor, DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer waitTimer;
+
+    private final Timer hashTimer;
+
+    private final Counter rejectedCounter;
+
+    public PasswordHashingExecutor(@Value("${security.password.executor.parallelism:0}") int parallelism,
+                                   @Value("${security.password.executor.queue-capacity:64}") int queueCapacity,
+                                   MeterRegistry meterRegistry) {
+        // 并行度默认等于 CPU 核数
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());  // 队列满时立即拒绝
+
+        Gauge.builder("auth.password.executor.queue", executor, e -> e.getQueue().size())
+                .description("等待执行的密码哈希任务数").register(meterRegistry);
+        Gauge.builder("auth.password.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的密码哈希任务数").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.executor.rejected")
+                .description("因队列已满被拒绝的密码哈希任务数").register(meterRegistry);
+        this.waitTimer = Timer.builder("auth.password.executor.wait")
+                .description("密码哈希任务的排队耗时").register(meterRegistry);
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("密码哈希任务的执行耗时").register(meterRegistry);
+    }
+
+    /**
+     * 提交一个密码哈希任务
+     *
+     * @param task 任务（如 authenticationManager.authenticate）
+     * @param <T>  任务结果类型
+     * @return 任务结果
+     * @throws RejectedExecutionException 队列已满时立即抛出
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, this);
+    }
+
+    /**
+     * 执行一个密码哈希任务，记录排队和执行耗时（响应式技术栈通过 Schedulers.fromExecutor 使用）
+     *
+     * @param task 任务
+     * @throws RejectedExecutionException 队列已满时立即抛出
+     */
+    @Override
+    public void execute(Runnable task) {
+        long submittedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
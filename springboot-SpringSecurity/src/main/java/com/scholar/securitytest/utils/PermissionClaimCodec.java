@@ -0,0 +1,130 @@
+package com.scholar.securitytest.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * token 中权限声明的紧凑编码
+ * 权限以菜单ID表示，编码为位图或差值 varint 两种格式中较短的一种，再做 Base64URL 编码：
+ * <ul>
+ *     <li>位图：第一个字节为 0，之后第 id 位表示是否拥有菜单ID为 id 的权限，适合ID集中的情况</li>
+ *     <li>varint：第一个字节为 1，之后依次是升序ID之间的差值（LEB128），适合ID稀疏的情况</li>
+ * </ul>
+ * 例如 30 个ID在 1~64 之间的权限编码后约 12 个字符，而逗号分隔的权限标识通常需要数百个字符。
+ */
+public final class PermissionClaimCodec {
+
+    private static final byte FORMAT_BITSET = 0;
+
+    private static final byte FORMAT_VARINT = 1;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private PermissionClaimCodec() {
+    }
+
+    /**
+     * 编码一组菜单ID
+     *
+     * @param ids 菜单ID，不能为负数，可以无序、可以重复
+     * @return Base64URL 字符串
+     */
+    public static String encode(int[] ids) {
+        int[] sorted = Arrays.stream(ids).sorted().distinct().toArray();
+        if (sorted.length > 0 && sorted[0] < 0) {
+            throw new IllegalArgumentException("菜单ID不能为负数：" + sorted[0]);
+        }
+        byte[] bitset = toBitset(sorted);
+        byte[] varint = toVarint(sorted);
+        return ENCODER.encodeToString(bitset.length <= varint.length ? bitset : varint);
+    }
+
+    /**
+     * 解码为升序的菜单ID
+     *
+     * @param encoded encode 的结果
+     * @return 升序、不重复的菜单ID
+     * @throws IllegalArgumentException 格式错误
+     */
+    public static int[] decode(String encoded) {
+        byte[] bytes = DECODER.decode(encoded);
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("权限声明为空");
+        }
+        return switch (bytes[0]) {
+            case FORMAT_BITSET -> fromBitset(bytes);
+            case FORMAT_VARINT -> fromVarint(bytes);
+            default -> throw new IllegalArgumentException("未知的权限声明格式：" + bytes[0]);
+        };
+    }
+
+    private static byte[] toBitset(int[] sorted) {
+        int length = sorted.length == 0 ? 0 : (sorted[sorted.length - 1] >>> 3) + 1;
+        byte[] bytes = new byte[1 + length];
+        bytes[0] = FORMAT_BITSET;
+        for (int id : sorted) {
+            bytes[1 + (id >>> 3)] |= (byte) (1 << (id & 7));
+        }
+        return bytes;
+    }
+
+    private static int[] fromBitset(byte[] bytes) {
+        int count = 0;
+        for (int i = 1; i < bytes.length; i++) {
+            count += Integer.bitCount(bytes[i] & 0xFF);
+        }
+        int[] ids = new int[count];
+        int n = 0;
+        for (int i = 1; i < bytes.length; i++) {
+            int bits = bytes[i] & 0xFF;
+            while (bits != 0) {
+                int bit = Integer.numberOfTrailingZeros(bits);
+                ids[n++] = ((i - 1) << 3) + bit;
+                bits &= bits - 1;
+            }
+        }
+        return ids;
+    }
+
+    private static byte[] toVarint(int[] sorted) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + sorted.length * 2);
+        out.write(FORMAT_VARINT);
+        int previous = 0;
+        for (int id : sorted) {
+            int delta = id - previous;
+            while ((delta & ~0x7F) != 0) {
+                out.write((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            out.write(delta);
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    private static int[] fromVarint(byte[] bytes) {
+        int[] ids = new int[bytes.length - 1];
+        int n = 0;
+        int previous = 0;
+        int i = 1;
+        while (i < bytes.length) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (i >= bytes.length || shift > 28) {
+                    throw new IllegalArgumentException("权限声明格式错误");
+                }
+                b = bytes[i++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += delta;
+            ids[n++] = previous;
+        }
+        return Arrays.copyOf(ids, n);
+    }
+}
@@ -0,0 +1,89 @@
+package com.scholar.securitytest.utils;
+
+import com.scholar.securitytest.domain.LoginUser;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * 编译后的权限判断
+ * 把一组权限标识（拥有其中任意一个即可）预先编译为 “字下标 + 掩码”，
+ * 判断时只对 LoginUser 的权限位图做位与运算，无需解析 SpEL，也无需逐个比较字符串。
+ */
+public final class PermissionMask {
+
+    private final String[] permissions;
+
+    // 掩码中非零字的下标及对应的掩码
+    private final int[] words;
+    private final long[] masks;
+
+    private PermissionMask(String[] permissions, int[] words, long[] masks) {
+        this.permissions = permissions;
+        this.words = words;
+        this.masks = masks;
+    }
+
+    /**
+     * 编译一组权限标识，拥有其中任意一个即判定为有权限
+     *
+     * @param permissions 权限标识
+     * @return 编译后的权限判断
+     */
+    public static PermissionMask anyOf(String... permissions) {
+        TreeMap<Integer, Long> wordMasks = new TreeMap<>();
+        for (String permission : permissions) {
+            int id = AuthorityRegistry.idOf(permission);
+            wordMasks.merge(id >>> 6, 1L << id, (a, b) -> a | b);
+        }
+        int[] words = wordMasks.keySet().stream().mapToInt(Integer::intValue).toArray();
+        long[] masks = wordMasks.values().stream().mapToLong(Long::longValue).toArray();
+        return new PermissionMask(permissions.clone(), words, masks);
+    }
+
+    /**
+     * 判断认证信息是否拥有权限
+     *
+     * @param authentication 认证信息
+     * @return 是否拥有权限
+     */
+    public boolean matches(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        if (authentication.getPrincipal() instanceof LoginUser loginUser) {
+            return matches(loginUser.authoritySet());
+        }
+        // 非 LoginUser 的认证信息（如匿名用户）没有位图，退化为按字符串比较
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            for (String permission : permissions) {
+                if (permission.equals(authority.getAuthority())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断权限集合是否拥有权限
+     *
+     * @param authoritySet 权限集合
+     * @return 是否拥有权限
+     */
+    public boolean matches(AuthoritySet authoritySet) {
+        for (int i = 0; i < words.length; i++) {
+            if (authoritySet.intersects(words[i], masks[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionMask" + Arrays.toString(permissions);
+    }
+}
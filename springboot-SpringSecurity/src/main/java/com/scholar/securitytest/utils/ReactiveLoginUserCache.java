@@ -0,0 +1,83 @@
+package com.scholar.securitytest.utils;
+
+import com.scholar.securitytest.domain.LoginUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 响应式技术栈的登录用户缓存
+ * 与 LoginUserCache 共用本地缓存、有效期计算和失效通知，只是把 Redis 读写换成非阻塞的 ReactiveRedisTemplate。
+ * 本地未命中时通过 LoginUserCache 的异步缓存读取 Redis，查询进行中收到的失效通知会丢弃查询结果，
+ * 不会把已登出的会话写回本地缓存。
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLoginUserCache {
+
+    @Autowired
+    private LoginUserCache loginUserCache;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, Object> sessionReactiveRedisTemplate;
+
+    @Autowired
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    /**
+     * 获取登录用户信息，本地未命中时从 Redis 异步加载
+     *
+     * @param userId 用户ID
+     * @return 登录用户信息，不存在时为空
+     */
+    public Mono<LoginUser> get(String userId) {
+        LoginUser local = loginUserCache.getIfPresent(userId);
+        if (local != null) {
+            return Mono.just(local);
+        }
+        // future 由同一用户并发的请求共用，取消订阅时不取消 future（suppressCancel）
+        return Mono.fromFuture(() -> loginUserCache.getAsync(userId, id -> {
+            long start = System.nanoTime();
+            return sessionReactiveRedisTemplate.opsForValue().get(LoginUserCache.KEY_PREFIX + id)
+                    .cast(LoginUser.class)
+                    .doOnSuccess(loginUser -> authMetrics.recordSessionFetch(loginUser != null, null, start))
+                    .doOnError(e -> authMetrics.recordSessionFetch(false, e, start))
+                    .toFuture();
+        }), true);
+    }
+
+    /**
+     * 保存登录用户信息到 Redis 和本地缓存，有效期与 LoginUserCache 一致
+     *
+     * @param userId    用户ID
+     * @param loginUser 登录用户信息
+     * @return 保存完成的信号
+     */
+    public Mono<Void> put(String userId, LoginUser loginUser) {
+        Duration ttl = Duration.ofMillis(loginUserCache.ttlMillis(loginUser, System.currentTimeMillis()));
+        return sessionReactiveRedisTemplate.opsForValue().set(LoginUserCache.KEY_PREFIX + userId, loginUser, ttl)
+                .doOnSuccess(saved -> loginUserCache.putLocal(userId, loginUser))
+                .then();
+    }
+
+    /**
+     * 删除登录用户信息，并通知所有节点淘汰本地副本
+     *
+     * @param userId 用户ID
+     * @return 删除完成的信号
+     */
+    public Mono<Void> evict(String userId) {
+        return sessionReactiveRedisTemplate.delete(LoginUserCache.KEY_PREFIX + userId)
+                .doOnSuccess(deleted -> loginUserCache.evictLocal(userId))
+                .then(reactiveStringRedisTemplate.convertAndSend(LoginUserCache.INVALIDATION_CHANNEL, userId))
+                .then();
+    }
+}
@@ -2,10 +2,13 @@ package com.scholar.securitytest.utils;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Redis 缓存工具类
@@ -15,6 +18,9 @@ import java.util.concurrent.TimeUnit;
 @Component
 public class RedisCache {
 
+    // 默认的 SCAN COUNT 提示
+    public static final long DEFAULT_SCAN_COUNT = 500;
+
     @Autowired
     public RedisTemplate redisTemplate;
 
@@ -65,6 +71,45 @@ public class RedisCache {
         return redisTemplate.expire(key, timeout, unit);
     }
 
+    /**
+     * 在一次管道中批量设置多个键的有效期，不存在的键会被忽略
+     *
+     * @param timeoutsMillis 键与有效期（毫秒）
+     */
+    public void expireAll(final Map<String, Long> timeoutsMillis) {
+        if (timeoutsMillis.isEmpty()) {
+            return;
+        }
+        RedisSerializer keySerializer = redisTemplate.getKeySerializer();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            timeoutsMillis.forEach((key, timeout) ->
+                    connection.keyCommands().pExpire(keySerializer.serialize(key), timeout));
+            return null;
+        });
+    }
+
+    /**
+     * 在一次管道中批量缓存多个对象，并设置相同的有效期
+     *
+     * @param values  键与缓存的值
+     * @param timeout 有效期
+     * @param unit    时间单位
+     * @param <T>     对象类型
+     */
+    public <T> void setMultiCacheObject(final Map<String, T> values, final long timeout, final TimeUnit unit) {
+        if (values.isEmpty()) {
+            return;
+        }
+        executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) {
+                ValueOperations valueOperations = operations.opsForValue();
+                values.forEach((key, value) -> valueOperations.set(key, value, timeout, unit));
+                return null;
+            }
+        });
+    }
+
     /**
      * 获取缓存的基本对象
      *
@@ -77,6 +122,31 @@ public class RedisCache {
         return operation.get(key);
     }
 
+    /**
+     * 一次 MGET 获取多个缓存对象
+     *
+     * @param keys 缓存的键
+     * @param <T>  返回值类型
+     * @return 与键顺序一致的缓存对象，不存在的键对应 null
+     */
+    public <T> List<T> getMultiCacheObject(final Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ValueOperations<String, T> operation = redisTemplate.opsForValue();
+        return operation.multiGet(keys);
+    }
+
+    /**
+     * 在一次管道中执行多条命令，减少网络往返
+     *
+     * @param session 在管道中执行的命令，命令的返回值在回调中均为 null
+     * @return 各条命令的执行结果，与执行顺序一致
+     */
+    public List<Object> executePipelined(final SessionCallback<?> session) {
+        return redisTemplate.executePipelined(session);
+    }
+
     /**
      * 删除单个缓存对象
      *
@@ -131,8 +201,8 @@ public class RedisCache {
      */
     public <T> BoundSetOperations<String, T> setCacheSet(final String key, final Set<T> dataSet) {
         BoundSetOperations<String, T> setOperation = redisTemplate.boundSetOps(key);
-        for (T value : dataSet) {
-            setOperation.add(value);
+        if (!dataSet.isEmpty()) {
+            setOperation.add((T[]) dataSet.toArray());  // 一条 SADD 写入全部元素
         }
         return setOperation;
     }
@@ -220,11 +290,42 @@ public class RedisCache {
 
     /**
      * 根据前缀获取缓存的键列表
+     * 基于 SCAN 实现，不会像 KEYS 那样阻塞 Redis；匹配的键很多时应直接使用 {@link #scan(String, long)} 逐个处理。
      *
      * @param pattern 键的前缀
      * @return 匹配的键列表
      */
     public Collection<String> keys(final String pattern) {
-        return redisTemplate.keys(pattern);
+        try (Stream<String> keys = scan(pattern, DEFAULT_SCAN_COUNT)) {
+            return keys.collect(Collectors.toCollection(LinkedHashSet::new));  // SCAN 可能返回重复的键
+        }
+    }
+
+    /**
+     * 以游标方式增量遍历匹配的键
+     * 流是惰性的：只有消费完当前一批键后才会发出下一条 SCAN，消费速度决定了对 Redis 的请求速度。
+     * 遍历期间一直存在的键至少返回一次，但可能重复返回；使用完毕后必须关闭流以释放连接。
+     *
+     * @param pattern 键的匹配模式
+     * @param count   每次 SCAN 的 COUNT 提示，即每批大约检查的键数
+     * @return 匹配的键
+     */
+    public Stream<String> scan(final String pattern, final long count) {
+        Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(count).build());
+        return cursor.stream();
+    }
+
+    /**
+     * 异步删除多个缓存对象（UNLINK），值的内存在 Redis 后台线程中回收，不阻塞其他命令
+     *
+     * @param keys 缓存键集合
+     * @return 删除的数量
+     */
+    public long unlink(final Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long count = redisTemplate.unlink(keys);
+        return count == null ? 0 : count;
     }
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.scholar.securitytest.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis GET 合并器
+ * 把不同请求线程并发发起的单键 GET 合并为一条 MGET：后台线程取到第一个请求后，
+ * 在很短的窗口（亚毫秒级）内继续收集请求，然后一次性查询并分发结果。
+ * 同一批中的重复键只查询一次。窗口为 0 时不额外等待，只合并 MGET 执行期间积压的请求。
+ * <p>
+ * 默认关闭（redis.batch.enabled）：低并发时每次 GET 都要多等一个窗口，只在会话读取的并发足以填满批次时开启。
+ * 停止后不再合并，新的请求改为直接 GET。
+ */
+@Slf4j
+@Component
+public class RedisMultiGetBatcher implements DisposableBean {
+
+    @Autowired
+    private RedisCache redisCache;
+
+    private final boolean enabled;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+    private final Thread dispatcher;
+
+    private volatile boolean running = true;
+
+    public RedisMultiGetBatcher(@Value("${redis.batch.enabled:false}") boolean enabled,
+                                @Value("${redis.batch.window:100us}") Duration window,
+                                @Value("${redis.batch.max-size:128}") int maxBatchSize) {
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.dispatcher = new Thread(this::dispatchLoop, "redis-mget-batcher");
+        this.dispatcher.setDaemon(true);
+        if (enabled) {
+            this.dispatcher.start();
+        }
+    }
+
+    /**
+     * 获取缓存对象，启用合并时与其他线程的请求合并为一条 MGET
+     *
+     * @param key 缓存的键
+     * @param <T> 返回值类型
+     * @return 缓存对象，不存在时返回 null
+     */
+    public <T> T get(String key) {
+        if (!enabled) {
+            return redisCache.getCacheObject(key);
+        }
+        try {
+            return this.<T>getAsync(key, Runnable::run).join();
+        } catch (CompletionException e) {
+            // 还原为 Redis 操作抛出的原始异常，调用方的异常处理与直接 GET 一致
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 异步获取缓存对象，调用线程不等待 Redis 响应
+     * 启用合并时由后台线程完成；未启用或已停止时在 executor 上执行单键 GET。
+     *
+     * @param key      缓存的键
+     * @param executor 未启用合并或已停止时执行 GET 的线程池
+     * @param <T>      返回值类型
+     * @return 缓存对象的 future，不存在时结果为 null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(String key, Executor executor) {
+        if (!enabled || !running) {
+            return CompletableFuture.supplyAsync(() -> redisCache.getCacheObject(key), executor);
+        }
+        Request request = new Request(key);
+        queue.add(request);
+        // 在检查之后、加入队列之前停止时，后台线程最后一次清理队列可能已经结束，请求不会再被处理；
+        // 能从队列中移除说明还没有被处理，改为直接 GET，否则由后台线程完成
+        if (!running && queue.remove(request)) {
+            return CompletableFuture.supplyAsync(() -> redisCache.getCacheObject(key), executor);
+        }
+        return (CompletableFuture<T>) request.future;
+    }
+
+    private void dispatchLoop() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                if (windowNanos > 0) {
+                    // 在窗口内继续收集请求，直到窗口结束或达到批次上限
+                    long deadline = System.nanoTime() + windowNanos;
+                    long remaining;
+                    while (batch.size() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                        Request next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                execute(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        // 停止后不再处理新的请求
+        Request request;
+        while ((request = queue.poll()) != null) {
+            request.future.completeExceptionally(new CancellationException("Redis GET 合并器已停止"));
+        }
+    }
+
+    private void execute(List<Request> batch) {
+        // 同一批中的重复键只查询一次
+        Map<String, List<Request>> requestsByKey = new LinkedHashMap<>();
+        for (Request request : batch) {
+            requestsByKey.computeIfAbsent(request.key, key -> new ArrayList<>(1)).add(request);
+        }
+        List<String> keys = new ArrayList<>(requestsByKey.keySet());
+        try {
+            List<Object> values = redisCache.getMultiCacheObject(keys);
+            for (int i = 0; i < keys.size(); i++) {
+                Object value = values == null ? null : values.get(i);
+                for (Request request : requestsByKey.get(keys.get(i))) {
+                    request.future.complete(value);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (Request request : batch) {
+                request.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        dispatcher.interrupt();
+    }
+
+    /**
+     * 一个等待中的 GET 请求
+     */
+    private static final class Request {
+
+        private final String key;
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Request(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.scholar.securitytest.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 容错的 Redis 消息监听容器
+ * 默认的容器在启动时若无法连接 Redis 会直接抛出异常导致应用启动失败；
+ * 这里改为记录警告并在后台按固定间隔重试订阅，Redis 恢复后自动开始接收消息。
+ */
+@Slf4j
+public class ResilientRedisMessageListenerContainer extends RedisMessageListenerContainer {
+
+    // 订阅失败后的重试间隔（毫秒）
+    private static final long RETRY_INTERVAL_MILLIS = 5000;
+
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-subscription-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean shuttingDown;
+
+    @Override
+    public void start() {
+        if (shuttingDown) {
+            return;
+        }
+        try {
+            super.start();
+        } catch (RuntimeException e) {
+            log.warn("Redis 订阅失败，{} 毫秒后重试：{}", RETRY_INTERVAL_MILLIS, e.getMessage());
+            super.stop();  // 重置启动状态，以便下次重试
+            retryScheduler.schedule(this::start, RETRY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        shuttingDown = true;
+        retryScheduler.shutdownNow();
+        super.destroy();
+    }
+}
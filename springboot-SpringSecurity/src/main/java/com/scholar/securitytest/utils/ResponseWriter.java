@@ -0,0 +1,95 @@
+package com.scholar.securitytest.utils;
+
+import com.alibaba.fastjson.JSON;
+import com.scholar.securitytest.common.ResponseResult;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 统一响应的写出工具，Servlet 与响应式技术栈共用
+ * 状态码固定为 200，业务状态码在响应体的 code 中；响应体在启动时编码为 UTF-8 字节（见 Payload），
+ * 写出时带 Content-Length 直接写入输出流，不再逐次序列化 JSON、查找字符集或经过 Writer。
+ */
+public final class ResponseWriter {
+
+    // 带字符集的内容类型，一次设置，无需再单独设置字符编码
+    private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    private static final MediaType MEDIA_TYPE = new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8);
+
+    private ResponseWriter() {
+    }
+
+    /**
+     * 将统一响应对象预先编码为不可变的响应体，应保存在静态常量中复用
+     *
+     * @param result 统一响应对象
+     * @return 编码后的响应体
+     */
+    public static Payload payload(ResponseResult<?> result) {
+        return new Payload(JSON.toJSONString(result).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 写出预先编码的响应体
+     *
+     * @param response HttpServletResponse 对象
+     * @param payload  预先编码的响应体
+     * @throws IOException 写入输出流失败（如客户端已断开）时抛出，由容器处理
+     */
+    public static void write(HttpServletResponse response, Payload payload) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(payload.bytes.length);
+        response.getOutputStream().write(payload.bytes);
+    }
+
+    /**
+     * 写出预先编码的响应体（响应式技术栈）
+     *
+     * @param response ServerHttpResponse 对象
+     * @param payload  预先编码的响应体
+     * @return 写入完成的信号
+     */
+    public static Mono<Void> write(ServerHttpResponse response, Payload payload) {
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MEDIA_TYPE);
+        response.getHeaders().setContentLength(payload.bytes.length);
+        // 包装只读视图，不复制字节，写出时也无法修改共享的数组
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(payload.buffer.duplicate())));
+    }
+
+    /**
+     * 预先编码为 UTF-8 的响应体，字节数组不对外暴露
+     */
+    public static final class Payload {
+
+        private final byte[] bytes;
+
+        private final ByteBuffer buffer;
+
+        private Payload(byte[] bytes) {
+            this.bytes = bytes;
+            this.buffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        }
+
+        /**
+         * 响应体的字节数
+         */
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
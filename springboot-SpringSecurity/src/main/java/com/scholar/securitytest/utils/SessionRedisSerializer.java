@@ -0,0 +1,45 @@
+package com.scholar.securitytest.utils;
+
+import com.scholar.securitytest.domain.LoginUser;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Redis 值序列化器
+ * LoginUser（即 "login:*" 键的值）使用 LoginUserCodec 的二进制格式，其余对象仍使用 FastJSON。
+ * 读取时按首字节自动识别格式，因此旧的 JSON 会话在过期或登出前仍可正常读取。
+ * <p>
+ * 滚动升级时先以 writeBinary = false 部署全部节点（仍写 JSON，但已能读取二进制），
+ * 再切换为 true，避免旧节点读到无法识别的二进制会话。
+ */
+public class SessionRedisSerializer implements RedisSerializer<Object> {
+
+    private final FastJsonRedisSerializer<Object> jsonSerializer = new FastJsonRedisSerializer<>(Object.class);
+
+    // 是否以二进制格式写入 LoginUser
+    private final boolean writeBinary;
+
+    public SessionRedisSerializer(boolean writeBinary) {
+        this.writeBinary = writeBinary;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (writeBinary && value instanceof LoginUser loginUser) {
+            return LoginUserCodec.encode(loginUser);
+        }
+        return jsonSerializer.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (LoginUserCodec.isBinary(bytes)) {
+            try {
+                return LoginUserCodec.decode(bytes);
+            } catch (RuntimeException e) {
+                throw new SerializationException("无法解析 LoginUser 二进制数据", e);
+            }
+        }
+        return jsonSerializer.deserialize(bytes);
+    }
+}
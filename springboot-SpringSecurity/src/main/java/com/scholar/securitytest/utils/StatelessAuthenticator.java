@@ -0,0 +1,108 @@
+package com.scholar.securitytest.utils;
+
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.User;
+import com.scholar.securitytest.domain.VerifiedToken;
+import com.scholar.securitytest.service.RolePermissionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 无状态认证（jwt.stateless.enabled=true）
+ * 登录时把用户名、紧凑编码的权限声明（菜单ID位图）和角色权限快照的版本写入 token，
+ * 请求时只要版本与当前快照一致，就直接由 token 中的声明构造认证信息，只检查本地的吊销列表，不读取 Redis 中的会话。
+ * 版本落后（角色权限已变化）或 token 中没有权限声明（开启前签发）时，仍按会话认证。
+ * 代价是会话的空闲超时不再起作用（以 token 的有效期为准）。
+ */
+@Component
+public class StatelessAuthenticator {
+
+    // token 中的用户名声明
+    public static final String CLAIM_USER_NAME = "name";
+
+    // token 中的权限声明，见 PermissionClaimCodec
+    public static final String CLAIM_PERMISSIONS = "pm";
+
+    // token 中角色权限快照的版本
+    public static final String CLAIM_PERM_VERSION = "pv";
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private RolePermissionService rolePermissionService;
+
+    private final boolean enabled;
+
+    public StatelessAuthenticator(@Value("${jwt.stateless.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 登录时写入 token 的附加声明，未开启无状态模式时为空
+     *
+     * @param loginUser 登录用户信息
+     * @return 附加声明；权限无法编码（快照尚未加载）时不含权限声明，该 token 按会话认证
+     */
+    public Map<String, Object> claimsOf(LoginUser loginUser) {
+        if (!enabled) {
+            return Map.of();
+        }
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(CLAIM_USER_NAME, loginUser.getUser().getUserName());
+        String version = rolePermissionService.version();
+        String encoded = rolePermissionService.encodePermissions(
+                loginUser.getPermissions() == null ? List.of() : loginUser.getPermissions());
+        if (version != null && encoded != null) {
+            claims.put(CLAIM_PERMISSIONS, encoded);
+            claims.put(CLAIM_PERM_VERSION, version);
+        }
+        return claims;
+    }
+
+    /**
+     * 判断 token 是否已被吊销，只在无状态模式下生效
+     *
+     * @param verified 验签通过的 token
+     * @return 是否已吊销
+     */
+    public boolean isRevoked(VerifiedToken verified) {
+        return enabled && tokenRevocationList.isRevoked(verified);
+    }
+
+    /**
+     * 由 token 中的声明构造登录用户
+     *
+     * @param verified 验签通过的 token
+     * @return 登录用户信息；未开启无状态模式、token 中没有权限声明或版本落后时返回 null，调用方应改为读取会话
+     */
+    public LoginUser authenticate(VerifiedToken verified) {
+        if (!enabled || verified.getPermissionClaim() == null || verified.getPermVersion() == null) {
+            return null;
+        }
+        List<String> permissions;
+        try {
+            permissions = rolePermissionService.decodePermissions(verified.getPermissionClaim(), verified.getPermVersion());
+        } catch (IllegalArgumentException e) {
+            return null;  // 声明与快照不一致，按会话认证
+        }
+        if (permissions == null) {
+            return null;
+        }
+        User user = new User();
+        user.setId(Long.valueOf(verified.getSubject()));
+        user.setUserName(verified.getUserName());
+        LoginUser loginUser = new LoginUser(user, permissions);
+        loginUser.setPermVersion(verified.getPermVersion());
+        return loginUser;
+    }
+}
@@ -0,0 +1,206 @@
+package com.scholar.securitytest.utils;
+
+import com.scholar.securitytest.domain.VerifiedToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地 token 吊销列表（无状态模式使用）
+ * 按 jti 吊销单个 token，按用户ID吊销该用户在某一时刻之前签发的全部 token。
+ * 判断是否吊销只查本地的 ConcurrentHashMap，请求路径上不访问 Redis；
+ * 吊销记录写入 Redis Stream "token:revoked"，各节点定期增量读取，重启后从头读取以补齐。
+ * token 过期后对应的记录不再有意义，本地和 Stream 中都会被清理。
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    // 吊销记录的 Stream
+    public static final String STREAM_KEY = "token:revoked";
+
+    // 记录的字段：按 jti 吊销时为 jti 和 exp，按用户吊销时为 sub 和 before（均为毫秒时间戳）
+    private static final String FIELD_JTI = "jti";
+    private static final String FIELD_EXP = "exp";
+    private static final String FIELD_SUB = "sub";
+    private static final String FIELD_BEFORE = "before";
+
+    // 两次裁剪 Stream 的最小间隔
+    private static final long TRIM_INTERVAL_MILLIS = 60_000;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final boolean enabled;
+
+    // token 的最长有效期，按用户吊销的记录在该时长后失效
+    private final long maxTtlMillis;
+
+    private final int batchSize;
+
+    // 已吊销的 token：jti → 过期时间
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    // 已吊销的用户：用户ID → 在该时间及之前签发的 token 均已吊销
+    private final Map<String, Long> revokedSubjects = new ConcurrentHashMap<>();
+
+    // 已读取到的 Stream 位置，只由定时任务访问
+    private String lastId = "0-0";
+
+    private long lastTrimMillis;
+
+    public TokenRevocationList(@Value("${jwt.stateless.enabled:false}") boolean enabled,
+                               @Value("${jwt.ttl:1h}") Duration maxTtl,
+                               @Value("${jwt.revocation.batch-size:1000}") int batchSize) {
+        this.enabled = enabled;
+        this.maxTtlMillis = maxTtl.toMillis();
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 判断 token 是否已被吊销
+     *
+     * @param verified 验签通过的 token
+     * @return 是否已吊销
+     */
+    public boolean isRevoked(VerifiedToken verified) {
+        if (verified.getId() != null && revokedTokens.containsKey(verified.getId())) {
+            return true;
+        }
+        Long before = revokedSubjects.get(verified.getSubject());
+        // iat 只精确到秒，吊销同一秒内签发的 token 也会被视为已吊销，宁可让用户重新登录
+        return before != null && verified.getIssuedAt() <= before;
+    }
+
+    /**
+     * 吊销单个 token，立即在本节点生效，并通过 Stream 同步到其他节点
+     *
+     * @param verified 验签通过的 token
+     */
+    public void revoke(VerifiedToken verified) {
+        if (verified.getId() == null) {
+            // 没有 jti 的 token 无法单独吊销，退化为吊销该用户的全部 token
+            revokeSubjects(List.of(verified.getSubject()));
+            return;
+        }
+        revokedTokens.put(verified.getId(), verified.getExpiration());
+        stringRedisTemplate.opsForStream().add(StreamRecords.string(Map.of(
+                        FIELD_JTI, verified.getId(),
+                        FIELD_EXP, String.valueOf(verified.getExpiration())))
+                .withStreamKey(STREAM_KEY));
+    }
+
+    /**
+     * 吊销用户在当前时刻之前签发的全部 token，通过一次管道写入 Stream
+     *
+     * @param userIds 用户ID
+     */
+    public void revokeSubjects(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        String before = String.valueOf(System.currentTimeMillis());
+        for (String userId : userIds) {
+            revokedSubjects.merge(userId, Long.parseLong(before), Math::max);
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String userId : userIds) {
+                stringConnection.xAdd(STREAM_KEY, Map.of(FIELD_SUB, userId, FIELD_BEFORE, before));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 增量读取其他节点写入的吊销记录，并清理已过期的记录
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval:PT1S}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            List<StringRecord> records;
+            do {
+                // 只读一个 Stream，使用单个 StreamOffset 的重载，避免创建泛型可变参数数组
+                StreamOffset<String> offset = StreamOffset.create(STREAM_KEY, ReadOffset.from(lastId));
+                records = stringRedisTemplate.execute((RedisCallback<List<StringRecord>>) connection ->
+                        ((StringRedisConnection) connection).xReadAsString(
+                                StreamReadOptions.empty().count(batchSize), offset));
+                if (records == null) {
+                    break;
+                }
+                for (StringRecord record : records) {
+                    apply(record.getValue());
+                    lastId = record.getId().getValue();
+                }
+            } while (records.size() == batchSize);  // 重启后补齐积压的记录
+            if (now - lastTrimMillis >= TRIM_INTERVAL_MILLIS) {
+                trim(now);
+                lastTrimMillis = now;
+            }
+        } catch (DataAccessException e) {
+            // 读取失败时保留已读位置，下一次继续读取；本节点写入的吊销记录不受影响
+            log.warn("读取 token 吊销记录失败：{}", e.getMessage());
+        }
+        prune(now);
+    }
+
+    /**
+     * 已吊销的 token 数和用户数
+     */
+    public int size() {
+        return revokedTokens.size() + revokedSubjects.size();
+    }
+
+    private void apply(Map<String, String> fields) {
+        String jti = fields.get(FIELD_JTI);
+        if (jti != null) {
+            revokedTokens.put(jti, Long.parseLong(fields.get(FIELD_EXP)));
+            return;
+        }
+        String sub = fields.get(FIELD_SUB);
+        if (sub != null) {
+            revokedSubjects.merge(sub, Long.parseLong(fields.get(FIELD_BEFORE)), Math::max);
+        }
+    }
+
+    /**
+     * 删除本地已过期的记录：token 已过期，或用户的记录已超过 token 的最长有效期
+     */
+    private void prune(long now) {
+        revokedTokens.values().removeIf(expiration -> expiration <= now);
+        revokedSubjects.values().removeIf(before -> before + maxTtlMillis <= now);
+    }
+
+    /**
+     * 裁剪 Stream：早于 token 最长有效期写入的记录对应的 token 都已过期（XTRIM MINID，需要 Redis 6.2）
+     */
+    private void trim(long now) {
+        byte[] minId = ((now - maxTtlMillis) + "-0").getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.execute((RedisCallback<Object>) (RedisConnection connection) -> connection.execute("XTRIM",
+                STREAM_KEY.getBytes(StandardCharsets.UTF_8), "MINID".getBytes(StandardCharsets.UTF_8),
+                "~".getBytes(StandardCharsets.UTF_8), minId));
+    }
+}
@@ -0,0 +1,298 @@
+package com.scholar.securitytest.utils;
+
+import com.scholar.securitytest.mapper.UserMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 已存在用户名的布隆过滤器
+ * 登录时先检查用户名是否可能存在，一定不存在的直接按"用户名或密码错误"拒绝，不查询数据库。
+ * <ul>
+ *     <li>定期由 sys_user 全量重建，启动后第一次重建完成之前全部放行</li>
+ *     <li>新建用户后应调用 addAndBroadcast，各节点通过发布/订阅立即加入，无需等待重建</li>
+ *     <li>绕过 addAndBroadcast 直接写入数据库的用户：每隔 check-interval 查询一次最大用户ID（主键，无需扫描），
+ *     大于过滤器加载时的值即立即重建，最多延迟一个检查间隔</li>
+ *     <li>用户名按 MySQL 默认排序规则比较：不区分大小写，忽略末尾空格</li>
+ * </ul>
+ * 布隆过滤器没有漏判，只有按 false-positive-rate 估计的误判（误判的用户名仍查询数据库）。
+ * 查询在响应式技术栈的事件循环线程上执行，因此未命中时不回查数据库；直接在数据库中修改的用户名在下一次全量重建后生效。
+ */
+@Slf4j
+@Component
+public class UsernameBloomFilter implements MessageListener {
+
+    // 新建用户的通知频道，消息内容为用户名
+    public static final String CREATED_CHANNEL = "user:created";
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final boolean enabled;
+
+    private final int expectedInsertions;
+
+    private final double falsePositiveRate;
+
+    // 重建串行执行，查询无锁
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // 加入用户名与替换过滤器互斥，只在替换的瞬间持有，不覆盖重建时的数据库查询
+    private final ReentrantLock addLock = new ReentrantLock();
+
+    // 当前使用的过滤器，未加载时为 null（全部放行）
+    private volatile Bits bits;
+
+    // 当前过滤器加载时的最大用户ID，与 bits 一起替换
+    private volatile long loadedMaxUserId;
+
+    // 重建期间新加入的用户名，替换前补入新的过滤器，避免查询之后新建的用户丢失
+    private List<String> pendingAdds;
+
+    // 未查询数据库即被拒绝的次数
+    private final LongAdder rejections = new LongAdder();
+
+    public UsernameBloomFilter(@Value("${security.username-filter.enabled:true}") boolean enabled,
+                               @Value("${security.username-filter.expected-insertions:100000}") int expectedInsertions,
+                               @Value("${security.username-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("false-positive-rate 必须在 0 和 1 之间");
+        }
+        this.enabled = enabled;
+        this.expectedInsertions = Math.max(expectedInsertions, 1);
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * 判断用户名是否可能存在
+     *
+     * @param username 用户名
+     * @return 一定不存在时返回 false；未开启或尚未加载时返回 true
+     */
+    public boolean mightExist(String username) {
+        Bits current = bits;
+        if (!enabled || current == null || username == null) {
+            return true;
+        }
+        if (current.mightContain(username)) {
+            return true;
+        }
+        rejections.increment();
+        return false;
+    }
+
+    /**
+     * 在本节点加入用户名
+     *
+     * @param username 用户名
+     */
+    public void add(String username) {
+        addLock.lock();
+        try {
+            if (bits != null) {
+                bits.put(username);
+            }
+            if (pendingAdds != null) {
+                pendingAdds.add(username);
+            }
+        } finally {
+            addLock.unlock();
+        }
+    }
+
+    /**
+     * 新建用户后调用：在本节点加入用户名并通知其他节点
+     *
+     * @param username 用户名
+     */
+    public void addAndBroadcast(String username) {
+        add(username);
+        try {
+            stringRedisTemplate.convertAndSend(CREATED_CHANNEL, username);
+        } catch (DataAccessException e) {
+            // 其他节点在下一次重建时加入
+            log.warn("新建用户通知发送失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 由 sys_user 全量重建，容量取配置值与当前用户数两倍中的较大者，为之后新建的用户留出余量
+     *
+     * @return 加载的用户数
+     */
+    public int rebuild() {
+        rebuildLock.lock();
+        try {
+            setPendingAdds(new ArrayList<>());
+            // 先读取最大用户ID再查询用户名，查询期间新建的用户一定会被下一次检查发现
+            Long maxUserId = userMapper.selectMaxUserId();
+            List<String> usernames = userMapper.selectAllUserNames();
+            Bits rebuilt = new Bits(Math.max(expectedInsertions, usernames.size() * 2L), falsePositiveRate);
+            for (String username : usernames) {
+                rebuilt.put(username);
+            }
+            addLock.lock();
+            try {
+                pendingAdds.forEach(rebuilt::put);
+                bits = rebuilt;
+                loadedMaxUserId = maxUserId == null ? 0 : maxUserId;
+            } finally {
+                addLock.unlock();
+            }
+            log.info("用户名过滤器已加载：{} 个用户，{} 位，{} 个哈希函数", usernames.size(), rebuilt.bitCount, rebuilt.hashCount);
+            return usernames.size();
+        } finally {
+            setPendingAdds(null);
+            rebuildLock.unlock();
+        }
+    }
+
+    private void setPendingAdds(List<String> pending) {
+        addLock.lock();
+        try {
+            pendingAdds = pending;
+        } finally {
+            addLock.unlock();
+        }
+    }
+
+    // 启动后立即执行一次，数据库不可用时保留旧的过滤器（或继续全部放行）
+    @Scheduled(fixedDelayString = "${security.username-filter.rebuild-interval:PT5M}")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("用户名过滤器重建失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 发现直接写入数据库的新用户后立即重建
+     *
+     * @return 是否重建
+     */
+    @Scheduled(fixedDelayString = "${security.username-filter.check-interval:PT5S}",
+            initialDelayString = "${security.username-filter.check-interval:PT5S}")
+    public boolean checkForNewUsers() {
+        if (!enabled || bits == null) {
+            return false;  // 尚未加载时全部放行，由定期重建负责加载
+        }
+        try {
+            Long maxUserId = userMapper.selectMaxUserId();
+            if (maxUserId == null || maxUserId <= loadedMaxUserId) {
+                return false;
+            }
+            log.info("发现新用户（最大用户ID {} → {}），重建用户名过滤器", loadedMaxUserId, maxUserId);
+            rebuild();
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("检查新用户失败：{}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 收到其他节点（或本节点）新建用户的通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        add(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 未查询数据库即被拒绝的次数
+     */
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * 固定大小的位数组，置位使用 CAS，可与查询并发
+     */
+    private static final class Bits {
+
+        private final AtomicLongArray words;
+
+        private final long bitCount;
+
+        private final int hashCount;
+
+        Bits(long expectedInsertions, double falsePositiveRate) {
+            // m = -n·ln(p) / (ln2)²，k = m/n·ln2
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.min((bits + 63) / 64, Integer.MAX_VALUE));
+            this.bitCount = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void put(String username) {
+            long hash = hash(username);
+            long h1 = mix(hash);
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long value;
+                while (((value = words.get(word)) & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    // 其他线程同时修改了该字，重试
+                }
+            }
+        }
+
+        boolean mightContain(String username) {
+            long hash = hash(username);
+            long h1 = mix(hash);
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * FNV-1a，逐字符转小写并忽略末尾空格，不创建新的字符串
+         */
+        private static long hash(String username) {
+            int end = username.length();
+            while (end > 0 && username.charAt(end - 1) == ' ') {
+                end--;
+            }
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < end; i++) {
+                hash ^= Character.toLowerCase(username.charAt(i));
+                hash *= 0x100000001B3L;
+            }
+            return hash;
+        }
+
+        // SplitMix64 的终结函数，打散 FNV 结果的低位
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import com.scholar.securitytest.common.AccessDeniedHandlerImpl;
+import com.scholar.securitytest.common.AuthenticationEntryPointImpl;
+import com.scholar.securitytest.common.ResponseResult;
+import com.scholar.securitytest.config.SecurityConfig;
+import com.scholar.securitytest.controller.LoginController;
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.User;
+import com.scholar.securitytest.domain.VerifiedToken;
+import com.scholar.securitytest.service.LoginService;
+import com.scholar.securitytest.service.RolePermissionService;
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.AuthTracer;
+import com.scholar.securitytest.utils.JwtAuthenticationTokenFilter;
+import com.scholar.securitytest.utils.JwtTokenCache;
+import com.scholar.securitytest.utils.LoginRateLimitFilter;
+import com.scholar.securitytest.utils.LoginRateLimiter;
+import com.scholar.securitytest.utils.LoginUserCache;
+import com.scholar.securitytest.utils.StatelessAuthenticator;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 返回 CompletableFuture 的接口在 ASYNC 分派中写出结果，会话无状态时 SecurityContext 不会带到 ASYNC 分派
+ */
+@WebMvcTest
+@ContextConfiguration(classes = {LoginController.class, SecurityConfig.class, JwtAuthenticationTokenFilter.class,
+        LoginRateLimitFilter.class, AccessDeniedHandlerImpl.class, AuthenticationEntryPointImpl.class,
+        AsyncDispatchSecurityTest.Observability.class})
+public class AsyncDispatchSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LoginService loginService;
+
+    @MockBean
+    private JwtTokenCache jwtTokenCache;
+
+    @MockBean
+    private StatelessAuthenticator statelessAuthenticator;
+
+    @MockBean
+    private LoginUserCache loginUserCache;
+
+    @MockBean
+    private RolePermissionService rolePermissionService;
+
+    @MockBean
+    private LoginRateLimiter loginRateLimiter;
+
+    @TestConfiguration
+    static class Observability {
+
+        @Bean
+        AuthMetrics authMetrics() {
+            return AuthMetrics.noop();
+        }
+
+        @Bean
+        AuthTracer authTracer() {
+            return AuthTracer.noop();
+        }
+    }
+
+    @Test
+    public void testAuthenticatedAsyncLogoutReturnsResult() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("alice");
+        LoginUser loginUser = new LoginUser(user, List.of("user"));
+        Mockito.when(jwtTokenCache.verify("token"))
+                .thenReturn(new VerifiedToken("1", Long.MAX_VALUE, "jti", 0, null, null, null));
+        Mockito.when(statelessAuthenticator.authenticate(ArgumentMatchers.any())).thenReturn(loginUser);
+        Mockito.when(loginService.logout(ArgumentMatchers.any()))
+                .thenReturn(CompletableFuture.completedFuture(new ResponseResult(200, "退出成功")));
+
+        MvcResult result = mockMvc.perform(post("/user/logout").header("token", "token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(200))
+                .andExpect(jsonPath("$.msg").value("退出成功"));
+    }
+
+    @Test
+    public void testAnonymousLogoutIsStillRejected() throws Exception {
+        mockMvc.perform(post("/user/logout"))
+                .andExpect(jsonPath("$.code").value(401));
+    }
+
+    @Test
+    public void testRefreshWithoutStringTokenIsInvalid() throws Exception {
+        Mockito.when(loginService.refresh(null))
+                .thenReturn(CompletableFuture.completedFuture(new ResponseResult(401, "刷新令牌无效，请重新登录")));
+
+        // 缺少请求体、缺少字段、字段不是字符串，都按无效令牌处理，而不是返回 500
+        for (String body : new String[]{null, "{}", "{\"refreshToken\":123}", "{\"refreshToken\":{}}"}) {
+            MockHttpServletRequestBuilder builder = post("/user/token/refresh");
+            if (body != null) {
+                builder.contentType(MediaType.APPLICATION_JSON).content(body);
+            }
+            MvcResult result = mockMvc.perform(builder)
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(jsonPath("$.code").value(401));
+        }
+        Mockito.verify(loginService, Mockito.times(4)).refresh(null);
+    }
+}
@@ -0,0 +1,60 @@
+import com.scholar.securitytest.service.JwtService;
+import com.scholar.securitytest.service.impl.JwtServiceImpl;
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.CalibratedBCryptPasswordEncoder;
+import com.scholar.securitytest.utils.JwtTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuthMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final AuthMetrics authMetrics = new AuthMetrics(registry);
+
+    @Test
+    public void testJwtVerifyIsTimedByCacheResult() throws Exception {
+        JwtService jwtService = new JwtServiceImpl("sangeng", Duration.ofHours(1), "sg");
+        JwtTokenCache jwtTokenCache = new JwtTokenCache(100);
+        ReflectionTestUtils.setField(jwtTokenCache, "jwtService", jwtService);
+        ReflectionTestUtils.setField(jwtTokenCache, "authMetrics", authMetrics);
+
+        String token = jwtService.createJWT("1");
+        jwtTokenCache.verify(token);
+        jwtTokenCache.verify(token);
+        assertThrows(Exception.class, () -> jwtTokenCache.verify("not.a.jwt"));
+
+        // 验签失败同样计入未命中的耗时
+        assertEquals(2, registry.get("auth.jwt.verify").tag("cache", "miss").timer().count());
+        assertEquals(1, registry.get("auth.jwt.verify").tag("cache", "hit").timer().count());
+    }
+
+    @Test
+    public void testFailuresAndRejectionsAreCounted() {
+        authMetrics.failure(AuthMetrics.Failure.TOKEN_INVALID);
+        authMetrics.failure(AuthMetrics.Failure.TOKEN_INVALID);
+        authMetrics.failure(AuthMetrics.Failure.SESSION_ABSENT);
+        authMetrics.unauthenticated();
+        authMetrics.recordFilter(AuthMetrics.Outcome.REJECTED, System.nanoTime());
+
+        assertEquals(2, registry.get("auth.failures").tag("reason", "token_invalid").counter().count());
+        assertEquals(1, registry.get("auth.failures").tag("reason", "session_absent").counter().count());
+        assertEquals(0, registry.get("auth.failures").tag("reason", "bad_credentials").counter().count());
+        assertEquals(1, registry.get("auth.rejections").tag("status", "401").counter().count());
+        assertEquals(1, registry.get("auth.filter").tag("outcome", "rejected").timer().count());
+    }
+
+    @Test
+    public void testBcryptIsTimed() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(4, 1, authMetrics);
+        assertTrue(encoder.matches("123456", encoder.encode("123456")));
+        assertEquals(1, registry.get("auth.password.bcrypt").timer().count());
+    }
+}
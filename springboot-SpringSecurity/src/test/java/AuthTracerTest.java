@@ -0,0 +1,60 @@
+import com.scholar.securitytest.utils.AuthTracer;
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuthTracerTest {
+
+    @Test
+    public void testSampledRequestIsBrokenDownIntoSteps() {
+        AuthTracer authTracer = new AuthTracer(1.0, 10);
+
+        Observation trace = authTracer.root("auth.filter");
+        String token = authTracer.trace(trace, "token.extract", () -> "token");
+        // 下层组件拿不到 parent，通过当前线程的当前步骤挂到树上
+        String subject = authTracer.trace(trace, "jwt.verify", () -> authTracer.trace("jwt.parse", () -> "1"));
+        assertThrows(IllegalStateException.class, () -> authTracer.trace(trace, "session.load", () -> {
+            throw new IllegalStateException("用户未登录");
+        }));
+        trace.lowCardinalityKeyValue("outcome", "rejected").stop();
+
+        assertEquals("token", token);
+        assertEquals("1", subject);
+        List<String> traces = authTracer.recentTraces();
+        assertEquals(1, traces.size());
+        String rendered = traces.get(0);
+        assertTrue(rendered.startsWith("auth.filter "), rendered);
+        assertTrue(rendered.contains("{outcome=rejected}"), rendered);
+        assertTrue(rendered.contains("jwt.verify ") && rendered.contains("[jwt.parse "), rendered);
+        assertTrue(rendered.contains("session.load ") && rendered.contains("!IllegalStateException"), rendered);
+    }
+
+    @Test
+    public void testUnsampledRequestRecordsNothing() {
+        AuthTracer authTracer = new AuthTracer(0, 10);
+
+        Observation trace = authTracer.root("auth.filter");
+        assertSame(Observation.NOOP, trace);
+        assertSame(Observation.NOOP, authTracer.start(trace, "jwt.verify"));
+        assertEquals("1", authTracer.trace(trace, "jwt.verify", () -> authTracer.trace("jwt.parse", () -> "1")));
+        trace.stop();
+        assertTrue(authTracer.recentTraces().isEmpty());
+    }
+
+    @Test
+    public void testOnlyRecentTracesAreKept() {
+        AuthTracer authTracer = new AuthTracer(1.0, 2);
+        for (int i = 0; i < 5; i++) {
+            authTracer.root("auth.login").lowCardinalityKeyValue("n", String.valueOf(i)).stop();
+        }
+        List<String> traces = authTracer.recentTraces();
+        assertEquals(2, traces.size());
+        assertTrue(traces.get(0).contains("{n=3}") && traces.get(1).contains("{n=4}"), traces.toString());
+    }
+}
@@ -0,0 +1,56 @@
+import com.scholar.securitytest.service.JwtService;
+import com.scholar.securitytest.service.impl.JwtServiceImpl;
+import com.scholar.securitytest.utils.InstancePool;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class InstancePoolTest {
+
+    @Test
+    public void testReusesReleasedInstances() {
+        AtomicInteger created = new AtomicInteger();
+        InstancePool<Object> pool = new InstancePool<>(() -> {
+            created.incrementAndGet();
+            return new Object();
+        }, 1);
+
+        Object first = pool.acquire();
+        Object second = pool.acquire();
+        assertNotSame(first, second);
+        pool.release(first);
+        pool.release(second);  // 超过空闲上限，直接丢弃
+        assertSame(first, pool.acquire());
+        pool.acquire();
+        assertEquals(3, created.get());
+    }
+
+    @Test
+    public void testConcurrentSignAndVerify() throws Exception {
+        // 每个任务都在新线程上执行（与虚拟线程模式下的请求相同），共享池中的 Mac
+        JwtService jwtService = new JwtServiceImpl("sangeng", Duration.ofHours(1), "sg");
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String subject = String.valueOf(i);
+                results.add(executor.submit(() -> jwtService.parseJWT(jwtService.createJWT(subject)).getSubject()));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(String.valueOf(i), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
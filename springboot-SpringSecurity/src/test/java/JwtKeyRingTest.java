@@ -0,0 +1,118 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scholar.securitytest.service.impl.JwtServiceImpl;
+import com.scholar.securitytest.utils.JwsAlgorithm;
+import com.scholar.securitytest.utils.JwtKeyRing;
+import com.scholar.securitytest.utils.JwtTokenCache;
+import com.scholar.securitytest.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SuppressWarnings("deprecation")
+public class JwtKeyRingTest {
+
+    private JwtServiceImpl jwtService(JwtKeyRing keyRing, boolean acceptHs256) {
+        JwtServiceImpl jwtService = new JwtServiceImpl("sangeng", Duration.ofHours(1), "sg");
+        ReflectionTestUtils.setField(jwtService, "jwtKeyRing", keyRing);
+        ReflectionTestUtils.setField(jwtService, "acceptHs256", acceptHs256);
+        return jwtService;
+    }
+
+    private JwtKeyRing keyRing(JwsAlgorithm algorithm) {
+        JwtKeyRing keyRing = new JwtKeyRing(algorithm, Duration.ofDays(1), Duration.ofHours(1));
+        ReflectionTestUtils.setField(keyRing, "stringRedisTemplate",
+                Mockito.mock(StringRedisTemplate.class, Mockito.RETURNS_DEEP_STUBS));
+        return keyRing;
+    }
+
+    @Test
+    public void testSignAndVerifyWithEachAlgorithm() throws Exception {
+        for (JwsAlgorithm algorithm : JwsAlgorithm.values()) {
+            JwtServiceImpl jwtService = jwtService(keyRing(algorithm), true);
+            String token = jwtService.createJWT("1");
+            Claims claims = jwtService.parseJWT(token);
+            assertEquals("1", claims.getSubject());
+            assertEquals("sg", claims.getIssuer());
+
+            // 替换签名的第一个字符：末尾字符含有 Base64 的填充位，替换后可能解码出相同的签名
+            int signatureStart = token.lastIndexOf('.') + 1;
+            String tampered = token.substring(0, signatureStart) + (token.charAt(signatureStart) == 'A' ? 'B' : 'A')
+                    + token.substring(signatureStart + 1);
+            assertThrows(SignatureException.class, () -> jwtService.parseJWT(tampered), algorithm.name());
+        }
+    }
+
+    @Test
+    public void testRotationKeepsPreviousKeyValid() throws Exception {
+        JwtKeyRing keyRing = keyRing(JwsAlgorithm.ES256);
+        JwtServiceImpl jwtService = jwtService(keyRing, true);
+        String before = jwtService.createJWT("1");
+
+        // 轮换后启用的是已提前发布的密钥，轮换前签发的 token 仍可验签
+        keyRing.rotate();
+        String after = jwtService.createJWT("2");
+        assertEquals("1", jwtService.parseJWT(before).getSubject());
+        assertEquals("2", jwtService.parseJWT(after).getSubject());
+
+        // 另一个节点的密钥环只有在加载了本节点的公钥后才能验签
+        JwtServiceImpl otherNode = jwtService(keyRing(JwsAlgorithm.ES256), false);
+        assertThrows(SignatureException.class, () -> otherNode.parseJWT(after));
+    }
+
+    @Test
+    public void testHs256FallbackAndJwks() throws Exception {
+        JwtKeyRing keyRing = keyRing(JwsAlgorithm.RS256);
+        String legacyToken = JwtUtil.createJWT("1");
+        assertEquals("1", jwtService(keyRing, true).parseJWT(legacyToken).getSubject());
+        assertThrows(SignatureException.class, () -> jwtService(keyRing, false).parseJWT(legacyToken));
+
+        // JWKS 中包含当前密钥和提前发布的下一个密钥
+        JsonNode keys = new ObjectMapper().readTree(keyRing.jwks()).get("keys");
+        assertEquals(2, keys.size());
+        assertEquals("RSA", keys.get(0).get("kty").asText());
+        assertEquals("RS256", keys.get(0).get("alg").asText());
+    }
+
+    @Test
+    public void testSigningKeyIsPublishedBeforeUse() throws Exception {
+        JwtKeyRing keyRing = new JwtKeyRing(JwsAlgorithm.ES256, Duration.ofDays(1), Duration.ofHours(1));
+        StringRedisTemplate unavailable = Mockito.mock(StringRedisTemplate.class);
+        Mockito.when(unavailable.opsForHash()).thenThrow(new RedisConnectionFailureException("Redis 不可用"));
+        ReflectionTestUtils.setField(keyRing, "stringRedisTemplate", unavailable);
+        JwtServiceImpl jwtService = jwtService(keyRing, false);
+
+        // 其他节点无法得到未发布的公钥，不签发 token
+        assertThrows(IllegalStateException.class, () -> jwtService.createJWT("1"));
+
+        // 第一次签名前发布并通知，之后不再重复通知
+        StringRedisTemplate available = Mockito.mock(StringRedisTemplate.class, Mockito.RETURNS_DEEP_STUBS);
+        ReflectionTestUtils.setField(keyRing, "stringRedisTemplate", available);
+        assertEquals("1", jwtService.parseJWT(jwtService.createJWT("1")).getSubject());
+        jwtService.createJWT("2");
+        Mockito.verify(available, Mockito.times(1))
+                .convertAndSend(Mockito.eq(JwtKeyRing.CHANGED_CHANNEL), Mockito.anyString());
+    }
+
+    @Test
+    public void testUnknownKeyIsNotCachedAsRejected() throws Exception {
+        String token = jwtService(keyRing(JwsAlgorithm.ES256), false).createJWT("1");
+        JwtServiceImpl otherNode = Mockito.spy(jwtService(keyRing(JwsAlgorithm.ES256), false));
+        JwtTokenCache jwtTokenCache = new JwtTokenCache(100);
+        ReflectionTestUtils.setField(jwtTokenCache, "jwtService", otherNode);
+
+        // 公钥可能稍后加载，每次都重新验签
+        assertThrows(JwtKeyRing.UnknownKeyException.class, () -> jwtTokenCache.verify(token));
+        assertThrows(JwtKeyRing.UnknownKeyException.class, () -> jwtTokenCache.verify(token));
+        Mockito.verify(otherNode, Mockito.times(2)).parseJWT(token);
+    }
+}
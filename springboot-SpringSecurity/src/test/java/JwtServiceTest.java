@@ -0,0 +1,59 @@
+import com.scholar.securitytest.service.JwtService;
+import com.scholar.securitytest.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SuppressWarnings("deprecation")
+public class JwtServiceTest {
+
+    private final JwtService jwtService = new JwtServiceImpl("sangeng", Duration.ofHours(1), "sg");
+
+    @Test
+    public void testCompatibleWithJjwt() throws Exception {
+        // JwtService 生成的 token 可以被 jjwt 以同一密钥解析（与原 JwtUtil 的格式相同），反之亦然
+        SecretKey key = new SecretKeySpec(Base64.getDecoder().decode("sangeng"), "AES");
+        String token = jwtService.createJWT("1");
+        Claims claims = Jwts.parser().setSigningKey(key).parseClaimsJws(token).getBody();
+        assertEquals("1", claims.getSubject());
+        assertEquals("sg", claims.getIssuer());
+
+        Date expiration = new Date((System.currentTimeMillis() + 60_000) / 1000 * 1000);
+        String legacyToken = Jwts.builder()
+                .setId("id")
+                .setSubject("2")
+                .setIssuer("sg")
+                .setIssuedAt(new Date())
+                .signWith(SignatureAlgorithm.HS256, key)
+                .setExpiration(expiration)
+                .compact();
+        Claims parsed = jwtService.parseJWT(legacyToken);
+        assertEquals("2", parsed.getSubject());
+        assertEquals(expiration, parsed.getExpiration());
+    }
+
+    @Test
+    public void testRejectsTamperedAndExpiredToken() {
+        String token = jwtService.createJWT("1");
+        // 替换签名的第一个字符：末尾字符含有 Base64 的填充位，替换后可能解码出相同的签名
+        int signatureStart = token.lastIndexOf('.') + 1;
+        String tampered = token.substring(0, signatureStart) + (token.charAt(signatureStart) == 'A' ? 'B' : 'A')
+                + token.substring(signatureStart + 1);
+        assertThrows(SignatureException.class, () -> jwtService.parseJWT(tampered));
+
+        String expired = jwtService.createJWT("id", "1", -1000L);
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parseJWT(expired));
+    }
+}
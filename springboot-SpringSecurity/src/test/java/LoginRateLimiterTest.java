@@ -0,0 +1,174 @@
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.LoginRateLimitFilter;
+import com.scholar.securitytest.utils.LoginRateLimitWebFilter;
+import com.scholar.securitytest.utils.LoginRateLimiter;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class LoginRateLimiterTest {
+
+    private static final long WINDOW = 60_000;
+
+    private final LoginRateLimiter limiter = new LoginRateLimiter(true, false, Duration.ofMillis(WINDOW), 5, 3, 1000, 4096);
+
+    @Test
+    public void testLimitsPerUserAndPerIp() {
+        long now = WINDOW * 100;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(LoginRateLimiter.Decision.ALLOWED, limiter.tryAcquireLocal("10.0.0.1", "alice", now));
+        }
+        assertEquals(LoginRateLimiter.Decision.USER_LIMITED, limiter.tryAcquireLocal("10.0.0.2", "alice", now));
+
+        // 被用户名限流拒绝的请求不占用 IP 的额度
+        assertEquals(LoginRateLimiter.Decision.ALLOWED, limiter.tryAcquireLocal("10.0.0.1", "bob", now));
+        assertEquals(LoginRateLimiter.Decision.ALLOWED, limiter.tryAcquireLocal("10.0.0.1", null, now));
+        assertEquals(LoginRateLimiter.Decision.IP_LIMITED, limiter.tryAcquireLocal("10.0.0.1", "carol", now));
+    }
+
+    @Test
+    public void testSlidingWindow() {
+        long start = WINDOW * 200;
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquireLocal("10.0.0.3", "dave", start);
+        }
+        // 下一个窗口刚开始时，上一窗口的计数几乎全部计入
+        assertEquals(LoginRateLimiter.Decision.USER_LIMITED, limiter.tryAcquireLocal("10.0.0.3", "dave", start + WINDOW));
+        // 过去一半时，上一窗口只计入一半（1.5 次），可以再尝试两次
+        assertEquals(LoginRateLimiter.Decision.ALLOWED, limiter.tryAcquireLocal("10.0.0.3", "dave", start + WINDOW * 3 / 2));
+        assertEquals(LoginRateLimiter.Decision.ALLOWED, limiter.tryAcquireLocal("10.0.0.3", "dave", start + WINDOW * 3 / 2));
+        assertEquals(LoginRateLimiter.Decision.USER_LIMITED, limiter.tryAcquireLocal("10.0.0.3", "dave", start + WINDOW * 3 / 2));
+        // 两个窗口以后完全恢复
+        assertEquals(LoginRateLimiter.Decision.ALLOWED, limiter.tryAcquireLocal("10.0.0.3", "dave", start + WINDOW * 3));
+    }
+
+    @Test
+    public void testUsernameOf() {
+        assertEquals("alice", LoginRateLimiter.usernameOf(bytes("{\"userName\":\" Alice \",\"password\":\"x\"}")));
+        assertNull(LoginRateLimiter.usernameOf(bytes("{\"password\":\"x\"}")));
+        assertNull(LoginRateLimiter.usernameOf(bytes("not json")));
+        assertNull(LoginRateLimiter.usernameOf(new byte[0]));
+    }
+
+    @Test
+    public void testFilterRejectsBeforeLoginAndReplaysBody() throws Exception {
+        LoginRateLimitFilter filter = new LoginRateLimitFilter();
+        ReflectionTestUtils.setField(filter, "loginRateLimiter",
+                new LoginRateLimiter(true, false, Duration.ofMinutes(1), 20, 1, 1000, 4096));
+        ReflectionTestUtils.setField(filter, "authMetrics", AuthMetrics.noop());
+        String json = "{\"userName\":\"erin\",\"password\":\"123456\"}";
+
+        AtomicReference<String> forwarded = new AtomicReference<>();
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(login(json), first, (request, response) ->
+                forwarded.set(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8)));
+        assertEquals(json, forwarded.get());
+
+        forwarded.set(null);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(login(json), second, (request, response) -> forwarded.set("called"));
+        assertNull(forwarded.get());
+        assertTrue(second.getContentAsString().contains("\"code\":429"), second.getContentAsString());
+        assertEquals("60", second.getHeader("Retry-After"));
+    }
+
+    @Test
+    public void testFilterChecksIpBeforeReadingBody() throws Exception {
+        LoginRateLimitFilter filter = filter(new LoginRateLimiter(true, false, Duration.ofMinutes(1), 1, 5, 1000, 64));
+        String json = "{\"userName\":\"frank\",\"password\":\"123456\"}";
+        filter.doFilter(login(json), new MockHttpServletResponse(), (request, response) -> {
+        });
+
+        // IP 已超限：不读取请求体
+        MockHttpServletRequest unread = new MockHttpServletRequest("POST", "/user/login") {
+            @Override
+            public ServletInputStream getInputStream() {
+                throw new AssertionError("IP 超限时不应读取请求体");
+            }
+        };
+        unread.setServletPath("/user/login");
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+        filter.doFilter(unread, limited, (request, response) -> fail("不应放行"));
+        assertTrue(limited.getContentAsString().contains("\"code\":429"), limited.getContentAsString());
+    }
+
+    @Test
+    public void testFilterRejectsOversizedBody() throws Exception {
+        LoginRateLimitFilter filter = filter(new LoginRateLimiter(true, false, Duration.ofMinutes(1), 20, 5, 1000, 64));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(login("{\"userName\":\"" + "x".repeat(100) + "\"}"), response,
+                (request, ignored) -> fail("不应放行"));
+        assertTrue(response.getContentAsString().contains("\"code\":413"), response.getContentAsString());
+
+        // 响应式过滤器：没有 Content-Length 时按累计读取的字节数拒绝
+        LoginRateLimitWebFilter webFilter = new LoginRateLimitWebFilter(
+                new LoginRateLimiter(true, false, Duration.ofMinutes(1), 20, 5, 1000, 64), AuthMetrics.noop());
+        DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/user/login")
+                .body(Flux.just(bufferFactory.wrap(bytes("x".repeat(40))), bufferFactory.wrap(bytes("x".repeat(40))))));
+        webFilter.filter(exchange, ignored -> Mono.error(new AssertionError("不应放行"))).block();
+        assertTrue(exchange.getResponse().getBodyAsString().block().contains("\"code\":413"));
+    }
+
+    @Test
+    public void testCachedBodySupportsReadListener() throws Exception {
+        LoginRateLimitFilter filter = filter(new LoginRateLimiter(true, false, Duration.ofMinutes(1), 20, 5, 1000, 4096));
+        List<String> events = new ArrayList<>();
+        filter.doFilter(login("{\"userName\":\"grace\"}"), new MockHttpServletResponse(), (request, response) ->
+                request.getInputStream().setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() {
+                        events.add("available");
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        events.add("done");
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        events.add("error");
+                    }
+                }));
+        assertEquals(List.of("available", "done"), events);
+    }
+
+    private static LoginRateLimitFilter filter(LoginRateLimiter limiter) {
+        LoginRateLimitFilter filter = new LoginRateLimitFilter();
+        ReflectionTestUtils.setField(filter, "loginRateLimiter", limiter);
+        ReflectionTestUtils.setField(filter, "authMetrics", AuthMetrics.noop());
+        return filter;
+    }
+
+    private static MockHttpServletRequest login(String json) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/user/login");
+        request.setServletPath("/user/login");
+        request.setContent(bytes(json));
+        request.setContentType("application/json");
+        return request;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.User;
+import com.scholar.securitytest.utils.FastJsonRedisSerializer;
+import com.scholar.securitytest.utils.LoginUserCodec;
+import com.scholar.securitytest.utils.SessionRedisSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoginUserCodecTest {
+
+    private static LoginUser sampleUser() {
+        User user = new User(2L, "sg", "三更", "$2a$10$Jnq31rRkNV3RNzXe0REsEOSKaYK8UgVZZqlNlNXqn.JeVcj2NdeZy",
+                "0", "0", "sg@example.com", "13800000000", "0", null, 1L,
+                LocalDateTime.of(2024, 5, 7, 12, 30, 15, 123000000), null, null, 0);
+        LoginUser loginUser = new LoginUser(user, List.of("system:dept:list", "user:view", "admin"));
+        loginUser.setRoleIds(List.of(1L, 2L));
+        loginUser.setPermVersion("3f2a9c0d1e4b5a67");
+        loginUser.setLoginTime(1715056215123L);
+        return loginUser;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        LoginUser loginUser = sampleUser();
+        LoginUser decoded = LoginUserCodec.decode(LoginUserCodec.encode(loginUser));
+
+        // 密码哈希不写入会话，其余字段保持一致
+        assertNull(decoded.getUser().getPassword());
+        loginUser.getUser().setPassword(null);
+        assertEquals(loginUser.getUser(), decoded.getUser());
+        assertEquals(loginUser.getPermissions(), decoded.getPermissions());
+        assertEquals(loginUser.getRoleIds(), decoded.getRoleIds());
+        assertEquals(loginUser.getPermVersion(), decoded.getPermVersion());
+        assertEquals(loginUser.getLoginTime(), decoded.getLoginTime());
+        assertTrue(decoded.hasPermission("user:view"));
+    }
+
+    @Test
+    public void testPermissionsAreStoredByName() {
+        // 权限以标识写入，不依赖本进程分配的权限ID，其他节点或重启后同样可以解析
+        String encoded = new String(LoginUserCodec.encode(sampleUser()), StandardCharsets.ISO_8859_1);
+        assertTrue(encoded.contains("system:dept:list"));
+        assertTrue(encoded.contains("user:view"));
+    }
+
+    @Test
+    public void testSmallerThanJson() {
+        LoginUser loginUser = sampleUser();
+        byte[] json = new FastJsonRedisSerializer<>(Object.class).serialize(loginUser);
+        byte[] binary = LoginUserCodec.encode(loginUser);
+        System.out.println("JSON：" + json.length + " 字节，二进制：" + binary.length + " 字节");
+        assertTrue(binary.length * 3 < json.length);
+    }
+
+    @Test
+    public void testReadsLegacyJson() {
+        LoginUser loginUser = sampleUser();
+        byte[] json = new FastJsonRedisSerializer<>(Object.class).serialize(loginUser);
+
+        // 迁移期间旧的 JSON 会话仍可读取
+        LoginUser decoded = (LoginUser) new SessionRedisSerializer(true).deserialize(json);
+        assertEquals(loginUser.getUser(), decoded.getUser());
+        assertEquals(loginUser.getPermissions(), decoded.getPermissions());
+    }
+
+    @Test
+    public void testRejectsOtherVersions() {
+        byte[] bytes = LoginUserCodec.encode(sampleUser());
+        bytes[1] = LoginUserCodec.VERSION - 1;
+
+        // 只有一种二进制格式，其他版本与损坏的数据一样无法解析
+        assertThrows(SerializationException.class, () -> new SessionRedisSerializer(true).deserialize(bytes));
+    }
+}
@@ -0,0 +1,95 @@
+import com.scholar.securitytest.mapper.UserMapper;
+import com.scholar.securitytest.service.JwtService;
+import com.scholar.securitytest.service.impl.JwtServiceImpl;
+import com.scholar.securitytest.utils.JwtTokenCache;
+import com.scholar.securitytest.utils.UsernameBloomFilter;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NegativeCacheTest {
+
+    @Test
+    public void testUsernameBloomFilter() {
+        UserMapper userMapper = Mockito.mock(UserMapper.class);
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            usernames.add("user" + i);
+        }
+        Mockito.when(userMapper.selectAllUserNames()).thenReturn(usernames);
+        Mockito.when(userMapper.selectMaxUserId()).thenReturn(10_000L);
+        UsernameBloomFilter filter = new UsernameBloomFilter(true, 10_000, 0.01);
+        ReflectionTestUtils.setField(filter, "userMapper", userMapper);
+
+        // 尚未加载时全部放行
+        assertTrue(filter.mightExist("nobody"));
+
+        assertEquals(10_000, filter.rebuild());
+        for (String username : usernames) {
+            assertTrue(filter.mightExist(username));
+        }
+        // 与 MySQL 默认排序规则一致：不区分大小写，忽略末尾空格
+        assertTrue(filter.mightExist("USER42 "));
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightExist("stranger" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, "误判次数 " + falsePositives);
+        assertEquals(10_000 - falsePositives, filter.getRejectionCount());
+
+        // 新建的用户立即生效
+        assertFalse(filter.mightExist("newcomer"));
+        filter.add("newcomer");
+        assertTrue(filter.mightExist("newcomer"));
+    }
+
+    @Test
+    public void testUsersInsertedDirectlyAreFound() {
+        UserMapper userMapper = Mockito.mock(UserMapper.class);
+        Mockito.when(userMapper.selectAllUserNames()).thenReturn(List.of("alice"));
+        Mockito.when(userMapper.selectMaxUserId()).thenReturn(1L);
+        UsernameBloomFilter filter = new UsernameBloomFilter(true, 1000, 0.01);
+        ReflectionTestUtils.setField(filter, "userMapper", userMapper);
+        filter.rebuild();
+        assertFalse(filter.checkForNewUsers());
+        assertFalse(filter.mightExist("bob"));
+
+        // 绕过 addAndBroadcast 直接写入数据库：最大用户ID变大后立即重建
+        Mockito.when(userMapper.selectAllUserNames()).thenReturn(List.of("alice", "bob"));
+        Mockito.when(userMapper.selectMaxUserId()).thenReturn(2L);
+        assertTrue(filter.checkForNewUsers());
+        assertTrue(filter.mightExist("bob"));
+        assertFalse(filter.checkForNewUsers());
+        Mockito.verify(userMapper, Mockito.times(2)).selectAllUserNames();
+    }
+
+    @Test
+    public void testRejectedTokensSkipVerification() throws Exception {
+        JwtService jwtService = Mockito.spy(new JwtServiceImpl("sangeng", Duration.ofHours(1), "sg"));
+        JwtTokenCache jwtTokenCache = new JwtTokenCache(100);
+        ReflectionTestUtils.setField(jwtTokenCache, "jwtService", jwtService);
+
+        String forged = jwtService.createJWT("1") + "x";
+        assertThrows(Exception.class, () -> jwtTokenCache.verify(forged));
+        assertThrows(JwtTokenCache.RejectedTokenException.class, () -> jwtTokenCache.verify(forged));
+        assertThrows(JwtTokenCache.RejectedTokenException.class, () -> jwtTokenCache.verify(forged));
+        Mockito.verify(jwtService, Mockito.times(1)).parseJWT(forged);
+        assertEquals(2, jwtTokenCache.rejectedStats().hitCount());
+
+        // 有效的 token 不受影响
+        String token = jwtService.createJWT("1");
+        assertEquals("1", jwtTokenCache.verify(token).getSubject());
+    }
+}
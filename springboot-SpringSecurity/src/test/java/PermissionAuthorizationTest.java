@@ -0,0 +1,233 @@
+import com.scholar.securitytest.common.BitsetPermissionEvaluator;
+import com.scholar.securitytest.common.PermissionAuthorizationManager;
+import com.scholar.securitytest.common.RequiresPermission;
+import com.scholar.securitytest.common.RequiresPermissionAuthorizationManager;
+import com.scholar.securitytest.common.RequiresPermissionReactiveAuthorizationManager;
+import com.scholar.securitytest.config.SecurityConfig;
+import com.scholar.securitytest.controller.HandControllerTest;
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.User;
+import com.scholar.securitytest.utils.AuthorityRegistry;
+import com.scholar.securitytest.utils.PermissionMask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.util.SimpleMethodInvocation;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PermissionAuthorizationTest {
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static Authentication authenticated(String... permissions) {
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("alice");
+        LoginUser loginUser = new LoginUser(user, List.of(permissions));
+        return new UsernamePasswordAuthenticationToken(loginUser, null, loginUser.getAuthorities());
+    }
+
+    private static Authentication anonymous() {
+        return new AnonymousAuthenticationToken("key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+    }
+
+    @Test
+    public void testMaskGrantedAndDenied() {
+        PermissionMask mask = PermissionMask.anyOf("user:view", "user:edit");
+        assertTrue(mask.matches(authenticated("user:edit")));
+        assertTrue(mask.matches(authenticated("system:dept:list", "user:view")));
+        assertFalse(mask.matches(authenticated("system:dept:list")));
+        assertFalse(mask.matches(authenticated()));
+        assertFalse(PermissionMask.anyOf().matches(authenticated("user:view")));
+    }
+
+    @Test
+    public void testMaskPastFirstWord() {
+        // 注册足够多的权限，使ID跨过第一个 64 位的字
+        List<String> wide = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            wide.add("test:wide:" + i);
+        }
+        AuthorityRegistry.registerAll(wide);
+        String high = wide.get(149);
+        String low = wide.get(0);
+        assertTrue(AuthorityRegistry.idOf(high) - AuthorityRegistry.idOf(low) >= 128);
+
+        assertTrue(PermissionMask.anyOf(high).matches(authenticated(high)));
+        assertFalse(PermissionMask.anyOf(high).matches(authenticated(low)));
+        // 掩码跨越多个字时，命中其中任意一个字即可
+        PermissionMask spanning = PermissionMask.anyOf(low, wide.get(100), high);
+        assertTrue(spanning.matches(authenticated(wide.get(100))));
+        assertTrue(spanning.matches(authenticated("user:view", high)));
+        assertFalse(spanning.matches(authenticated(wide.get(70), "user:view")));
+        // 权限位图比掩码短时不会越界
+        assertFalse(PermissionMask.anyOf(high).matches(authenticated("user:view")));
+    }
+
+    @Test
+    public void testUnknownPermissionIsDenied() {
+        assertFalse(PermissionMask.anyOf("test:unknown:perm").matches(authenticated("user:view", "admin")));
+    }
+
+    @Test
+    public void testMissingOrAnonymousAuthenticationIsDenied() {
+        PermissionMask mask = PermissionMask.anyOf("user:view");
+        assertFalse(mask.matches((Authentication) null));
+        assertFalse(mask.matches(anonymous()));
+
+        // 未认证的 LoginUser 即使带有权限也不放行
+        LoginUser loginUser = (LoginUser) authenticated("user:view").getPrincipal();
+        assertFalse(mask.matches(new UsernamePasswordAuthenticationToken(loginUser, null)));
+
+        // 没有用户信息和权限列表的 LoginUser
+        LoginUser empty = new LoginUser(null, null);
+        assertFalse(mask.matches(new UsernamePasswordAuthenticationToken(empty, null, empty.getAuthorities())));
+    }
+
+    @Test
+    public void testNonLoginUserFallsBackToAuthorityNames() {
+        Authentication other = new UsernamePasswordAuthenticationToken("bob", null,
+                AuthorityUtils.createAuthorityList("user:view"));
+        assertTrue(PermissionMask.anyOf("admin", "user:view").matches(other));
+        assertFalse(PermissionMask.anyOf("admin").matches(other));
+    }
+
+    @Test
+    public void testUrlAuthorizationManager() {
+        PermissionAuthorizationManager<Object> manager = PermissionAuthorizationManager.hasPermission("admin");
+        AuthorizationDecision granted = manager.check(() -> authenticated("admin"), null);
+        assertTrue(granted.isGranted());
+        assertSame(granted, manager.check(() -> authenticated("user:view", "admin"), null));
+        assertFalse(manager.check(() -> authenticated("user:view"), null).isGranted());
+        assertFalse(manager.check(PermissionAuthorizationTest::anonymous, null).isGranted());
+        assertFalse(manager.check(() -> null, null).isGranted());
+    }
+
+    @Test
+    public void testPermissionEvaluator() {
+        BitsetPermissionEvaluator evaluator = new BitsetPermissionEvaluator();
+        Authentication authentication = authenticated("user:view");
+        assertTrue(evaluator.hasPermission(authentication, null, "user:view"));
+        assertTrue(evaluator.hasPermission(authentication, "user:view", null));
+        assertTrue(evaluator.hasPermission(authentication, 1L, "User", "user:view"));
+        assertFalse(evaluator.hasPermission(authentication, null, "admin"));
+        assertFalse(evaluator.hasPermission(authentication, 1L, "User", "admin"));
+        assertFalse(evaluator.hasPermission(authentication, null, null));
+        assertFalse(evaluator.hasPermission(authentication, 1L, "User", null));
+        assertFalse(evaluator.hasPermission(anonymous(), null, "user:view"));
+    }
+
+    @Test
+    public void testMethodAuthorizationManager() throws Exception {
+        RequiresPermissionAuthorizationManager manager = new RequiresPermissionAuthorizationManager();
+        HandControllerTest controller = new HandControllerTest();
+        SimpleMethodInvocation sayHello = new SimpleMethodInvocation(controller,
+                HandControllerTest.class.getMethod("sayHello"));
+
+        assertTrue(manager.check(() -> authenticated("user:view"), sayHello).isGranted());
+        assertFalse(manager.check(() -> authenticated("admin"), sayHello).isGranted());
+        assertFalse(manager.check(PermissionAuthorizationTest::anonymous, sayHello).isGranted());
+        // 没有注解的方法不做决定
+        assertNull(manager.check(() -> authenticated("user:view"),
+                new SimpleMethodInvocation(controller, HandControllerTest.class.getMethod("test"))));
+
+        // 类上的注解对没有注解的方法生效，方法上的注解优先
+        ClassLevel classLevel = new ClassLevel();
+        SimpleMethodInvocation inherited = new SimpleMethodInvocation(classLevel, ClassLevel.class.getMethod("list"));
+        SimpleMethodInvocation overridden = new SimpleMethodInvocation(classLevel, ClassLevel.class.getMethod("remove"));
+        assertTrue(manager.check(() -> authenticated("user:view"), inherited).isGranted());
+        assertFalse(manager.check(() -> authenticated("user:view"), overridden).isGranted());
+        assertTrue(manager.check(() -> authenticated("user:remove"), overridden).isGranted());
+    }
+
+    @Test
+    public void testMethodSecurityAdvisor() {
+        Advisor advisor = ReflectionTestUtils.invokeMethod(SecurityConfig.class, "requiresPermissionAuthorizationAdvisor");
+        ProxyFactory factory = new ProxyFactory(new HandControllerTest());
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(advisor);
+        HandControllerTest controller = (HandControllerTest) factory.getProxy();
+
+        SecurityContextHolder.getContext().setAuthentication(authenticated("user:view"));
+        assertEquals("Hello, World!", controller.sayHello());
+        assertEquals("HelloWorld", controller.test());
+        assertThrows(AccessDeniedException.class, controller::admin);
+
+        SecurityContextHolder.getContext().setAuthentication(anonymous());
+        assertThrows(AccessDeniedException.class, controller::sayHello);
+    }
+
+    @Test
+    public void testReactiveAuthorizationManager() throws Exception {
+        HandControllerTest controller = new HandControllerTest();
+        HandlerMethod sayHello = new HandlerMethod(controller, "sayHello");
+        RequestMappingHandlerMapping handlerMapping = Mockito.mock(RequestMappingHandlerMapping.class);
+        Mockito.when(handlerMapping.getHandler(ArgumentMatchers.any())).thenReturn(Mono.just(sayHello));
+        AuthorizationContext context = new AuthorizationContext(
+                MockServerWebExchange.from(MockServerHttpRequest.get("/sayHello")));
+
+        RequiresPermissionReactiveAuthorizationManager authenticated =
+                RequiresPermissionReactiveAuthorizationManager.authenticated(handlerMapping);
+        assertTrue(authenticated.check(Mono.just(authenticated("user:view")), context).block().isGranted());
+        assertFalse(authenticated.check(Mono.just(authenticated("admin")), context).block().isGranted());
+        assertFalse(authenticated.check(Mono.just(anonymous()), context).block().isGranted());
+        assertFalse(authenticated.check(Mono.empty(), context).block().isGranted());
+
+        // URL 级别的权限与方法注解都满足才允许访问
+        RequiresPermissionReactiveAuthorizationManager admin =
+                RequiresPermissionReactiveAuthorizationManager.hasPermission(handlerMapping, "admin");
+        assertTrue(admin.check(Mono.just(authenticated("admin", "user:view")), context).block().isGranted());
+        assertFalse(admin.check(Mono.just(authenticated("user:view")), context).block().isGranted());
+        assertFalse(admin.check(Mono.just(authenticated("admin")), context).block().isGranted());
+
+        // 没有注解或找不到处理方法时只看 URL 级别的权限
+        Mockito.when(handlerMapping.getHandler(ArgumentMatchers.any()))
+                .thenReturn(Mono.just(new HandlerMethod(controller, "test")));
+        assertTrue(authenticated.check(Mono.just(authenticated()), context).block().isGranted());
+        Mockito.when(handlerMapping.getHandler(ArgumentMatchers.any())).thenReturn(Mono.empty());
+        assertTrue(admin.check(Mono.just(authenticated("admin")), context).block().isGranted());
+        assertFalse(admin.check(Mono.just(authenticated("user:view")), context).block().isGranted());
+    }
+
+    @RequiresPermission("user:view")
+    public static class ClassLevel {
+
+        public String list() {
+            return "list";
+        }
+
+        @RequiresPermission("user:remove")
+        public String remove() {
+            return "remove";
+        }
+    }
+}
@@ -0,0 +1,35 @@
+import com.scholar.securitytest.utils.PermissionClaimCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PermissionClaimCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        // 集中的ID编码为位图，30 个权限只需十几个字符
+        int[] dense = IntStream.rangeClosed(1, 30).toArray();
+        String encoded = PermissionClaimCodec.encode(dense);
+        assertTrue(encoded.length() <= 8, encoded);
+        assertArrayEquals(dense, PermissionClaimCodec.decode(encoded));
+
+        // 稀疏的ID编码为差值 varint
+        int[] sparse = {2001, 2002, 2050, 100000};
+        String sparseEncoded = PermissionClaimCodec.encode(new int[]{100000, 2050, 2001, 2002, 2001});
+        assertTrue(sparseEncoded.length() <= 12, sparseEncoded);
+        assertArrayEquals(sparse, PermissionClaimCodec.decode(sparseEncoded));
+
+        assertArrayEquals(new int[0], PermissionClaimCodec.decode(PermissionClaimCodec.encode(new int[0])));
+    }
+
+    @Test
+    public void testRejectsMalformedClaims() {
+        assertThrows(IllegalArgumentException.class, () -> PermissionClaimCodec.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> PermissionClaimCodec.decode("Ag"));  // 未知格式
+        assertThrows(IllegalArgumentException.class, () -> PermissionClaimCodec.decode("AYA"));  // varint 被截断
+    }
+}
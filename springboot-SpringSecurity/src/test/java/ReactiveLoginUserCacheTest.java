@@ -0,0 +1,62 @@
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.User;
+import com.scholar.securitytest.utils.AuthMetrics;
+import com.scholar.securitytest.utils.LoginUserCache;
+import com.scholar.securitytest.utils.ReactiveLoginUserCache;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ReactiveLoginUserCacheTest {
+
+    private final LoginUserCache loginUserCache = new LoginUserCache(100, Duration.ofSeconds(30));
+
+    @SuppressWarnings("unchecked")
+    private final ReactiveRedisTemplate<String, Object> redisTemplate =
+            Mockito.mock(ReactiveRedisTemplate.class, Mockito.RETURNS_DEEP_STUBS);
+
+    private final ReactiveLoginUserCache reactiveLoginUserCache = new ReactiveLoginUserCache();
+
+    public ReactiveLoginUserCacheTest() {
+        ReflectionTestUtils.setField(reactiveLoginUserCache, "loginUserCache", loginUserCache);
+        ReflectionTestUtils.setField(reactiveLoginUserCache, "sessionReactiveRedisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(reactiveLoginUserCache, "authMetrics", AuthMetrics.noop());
+    }
+
+    @Test
+    public void testInvalidationDuringLoadDiscardsResult() {
+        Sinks.One<Object> redisGet = Sinks.one();
+        Mockito.when(redisTemplate.opsForValue().get("login:1")).thenReturn(redisGet.asMono());
+
+        CompletableFuture<LoginUser> pending = reactiveLoginUserCache.get("1").toFuture();
+        // GET 尚未返回时收到登出的失效通知
+        loginUserCache.evictLocal("1");
+        LoginUser loginUser = new LoginUser(new User(), List.of());
+        redisGet.tryEmitValue(loginUser);
+
+        assertSame(loginUser, pending.join());
+        assertNull(loginUserCache.getIfPresent("1"));
+    }
+
+    @Test
+    public void testLoadedSessionIsCachedLocally() {
+        LoginUser loginUser = new LoginUser(new User(), List.of());
+        Mockito.when(redisTemplate.opsForValue().get("login:2")).thenReturn(Mono.just(loginUser));
+
+        assertSame(loginUser, reactiveLoginUserCache.get("2").block());
+        assertSame(loginUser, loginUserCache.getIfPresent("2"));
+        // 会话不存在时不缓存
+        Mockito.when(redisTemplate.opsForValue().get("login:3")).thenReturn(Mono.empty());
+        assertNull(reactiveLoginUserCache.get("3").block());
+    }
+}
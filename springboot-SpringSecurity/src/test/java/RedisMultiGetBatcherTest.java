@@ -0,0 +1,123 @@
+import com.scholar.securitytest.utils.RedisCache;
+import com.scholar.securitytest.utils.RedisMultiGetBatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RedisMultiGetBatcherTest {
+
+    /**
+     * 记录 MGET 次数的 RedisCache，值为 "value:" + 键，以 "missing" 开头的键不存在
+     */
+    private static class CountingRedisCache extends RedisCache {
+
+        private final AtomicInteger multiGets = new AtomicInteger();
+
+        private final AtomicInteger gets = new AtomicInteger();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getCacheObject(String key) {
+            gets.incrementAndGet();
+            return key.startsWith("missing") ? null : (T) ("value:" + key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> getMultiCacheObject(Collection<String> keys) {
+            multiGets.incrementAndGet();
+            try {
+                Thread.sleep(2);  // 模拟网络往返
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<T> values = new ArrayList<>();
+            for (String key : keys) {
+                values.add(key.startsWith("missing") ? null : (T) ("value:" + key));
+            }
+            return values;
+        }
+    }
+
+    @Test
+    public void testCoalescesConcurrentGets() throws Exception {
+        CountingRedisCache redisCache = new CountingRedisCache();
+        RedisMultiGetBatcher batcher = new RedisMultiGetBatcher(true, Duration.ofNanos(200_000), 128);
+        ReflectionTestUtils.setField(batcher, "redisCache", redisCache);
+
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String key = (i % 4 == 0 ? "missing:" : "login:") + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return batcher.get(key);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < threads; i++) {
+                Object value = results.get(i).get();
+                if (i % 4 == 0) {
+                    assertNull(value);
+                } else {
+                    assertEquals("value:login:" + i, value);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            batcher.destroy();
+        }
+
+        // 并发的 GET 被合并为少量的 MGET
+        System.out.println(threads + " 个 GET 合并为 " + redisCache.multiGets.get() + " 条 MGET");
+        assertTrue(redisCache.multiGets.get() < threads);
+    }
+
+    @Test
+    public void testGetAsyncDoesNotBlockCaller() throws Exception {
+        CountingRedisCache redisCache = new CountingRedisCache();
+        RedisMultiGetBatcher batcher = new RedisMultiGetBatcher(true, Duration.ofMillis(50), 128);
+        ReflectionTestUtils.setField(batcher, "redisCache", redisCache);
+        try {
+            // 窗口内结果尚未返回，调用线程不等待
+            CompletableFuture<Object> future = batcher.getAsync("login:1", Runnable::run);
+            assertFalse(future.isDone());
+            assertEquals("value:login:1", future.get(5, TimeUnit.SECONDS));
+        } finally {
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    public void testFallsBackToGetAfterDestroy() throws Exception {
+        CountingRedisCache redisCache = new CountingRedisCache();
+        RedisMultiGetBatcher batcher = new RedisMultiGetBatcher(true, Duration.ZERO, 128);
+        ReflectionTestUtils.setField(batcher, "redisCache", redisCache);
+        batcher.destroy();
+
+        // 停止后的请求不会再被后台线程处理，改为直接 GET，而不是一直等待
+        assertEquals("value:login:1", batcher.<Object>getAsync("login:1", Runnable::run).get(5, TimeUnit.SECONDS));
+        assertNull(batcher.get("missing:2"));
+        assertEquals(2, redisCache.gets.get());
+        assertEquals(0, redisCache.multiGets.get());
+    }
+}
@@ -0,0 +1,88 @@
+import com.scholar.securitytest.domain.RefreshToken;
+import com.scholar.securitytest.service.impl.RefreshTokenServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RefreshTokenServiceTest {
+
+    private final StringRedisTemplate stringRedisTemplate = Mockito.mock(StringRedisTemplate.class);
+
+    private final RefreshTokenServiceImpl refreshTokenService = new RefreshTokenServiceImpl();
+
+    {
+        ReflectionTestUtils.setField(refreshTokenService, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(refreshTokenService, "ttl", Duration.ofHours(12));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIssueTracksFamilyPerUser() {
+        RefreshToken issued = refreshTokenService.issue("42");
+        assertEquals("42", issued.getUserId());
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        Mockito.verify(stringRedisTemplate).executePipelined(callback.capture());
+        StringRedisConnection connection = Mockito.mock(StringRedisConnection.class);
+        callback.getValue().doInRedis(connection);
+
+        Mockito.verify(connection).set(ArgumentMatchers.eq("refresh:family:" + issued.getFamilyId()),
+                ArgumentMatchers.eq("42"), ArgumentMatchers.any(Expiration.class), ArgumentMatchers.eq(SetOption.upsert()));
+        Mockito.verify(connection).sAdd("refresh:user:42", issued.getFamilyId());
+        Mockito.verify(connection).pExpire("refresh:user:42", Duration.ofHours(12).toMillis());
+    }
+
+    @Test
+    public void testRotateResults() {
+        mockRotate(List.of("rotated", "family:42"));
+        RefreshToken rotated = refreshTokenService.rotate("old");
+        assertEquals("42", rotated.getUserId());
+        assertEquals("family", rotated.getFamilyId());
+        assertNotEquals("old", rotated.getToken());
+
+        // 已使用过的令牌：脚本已吊销整个家族
+        mockRotate(List.of("reused", "family"));
+        assertNull(refreshTokenService.rotate("old"));
+
+        // 不存在的令牌或家族已过期、已被吊销
+        mockRotate(List.of("invalid"));
+        assertNull(refreshTokenService.rotate("expired"));
+    }
+
+    @Test
+    public void testRotateRejectsMissingToken() {
+        assertNull(refreshTokenService.rotate(null));
+        assertNull(refreshTokenService.rotate(" "));
+        Mockito.verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    public void testRevokeUsersDeletesFamilies() {
+        Mockito.when(stringRedisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                        ArgumentMatchers.eq(List.of("refresh:user:1", "refresh:user:2")), ArgumentMatchers.eq("refresh:family:")))
+                .thenReturn(3L);
+        assertEquals(3, refreshTokenService.revokeUsers(List.of("1", "2")));
+        assertEquals(0, refreshTokenService.revokeUsers(List.of()));
+    }
+
+    private void mockRotate(List<String> result) {
+        Mockito.when(stringRedisTemplate.execute(ArgumentMatchers.<RedisScript<List<String>>>any(),
+                        ArgumentMatchers.anyList(), ArgumentMatchers.eq("refresh:family:")))
+                .thenReturn(result);
+    }
+}
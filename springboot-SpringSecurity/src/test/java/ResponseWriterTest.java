@@ -0,0 +1,45 @@
+import com.scholar.securitytest.common.ResponseResult;
+import com.scholar.securitytest.utils.ResponseWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResponseWriterTest {
+
+    private static final String JSON = "{\"code\":401,\"msg\":\"认证失败，请重新登录\"}";
+
+    private final ResponseWriter.Payload payload = ResponseWriter.payload(
+            new ResponseResult(HttpStatus.UNAUTHORIZED.value(), "认证失败，请重新登录"));
+
+    @Test
+    public void testWriteServletResponse() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseWriter.write(response, payload);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("application/json;charset=UTF-8", response.getContentType());
+        assertEquals(JSON.getBytes(StandardCharsets.UTF_8).length, response.getContentLength());
+        assertEquals(JSON, response.getContentAsString());
+    }
+
+    @Test
+    public void testWriteReactiveResponseRepeatedly() {
+        // 同一份响应体可重复写出，写出不会移动共享缓冲区的位置
+        for (int i = 0; i < 2; i++) {
+            MockServerHttpResponse response = new MockServerHttpResponse();
+            ResponseWriter.write(response, payload).block();
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8),
+                    response.getHeaders().getContentType());
+            assertEquals(payload.length(), response.getHeaders().getContentLength());
+            assertEquals(JSON, response.getBodyAsString().block());
+        }
+    }
+}
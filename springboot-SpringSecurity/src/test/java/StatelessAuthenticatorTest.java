@@ -0,0 +1,107 @@
+import com.scholar.securitytest.domain.LoginUser;
+import com.scholar.securitytest.domain.RolePermission;
+import com.scholar.securitytest.domain.User;
+import com.scholar.securitytest.domain.VerifiedToken;
+import com.scholar.securitytest.mapper.MenuMapper;
+import com.scholar.securitytest.service.JwtService;
+import com.scholar.securitytest.service.impl.JwtServiceImpl;
+import com.scholar.securitytest.service.impl.RolePermissionServiceImpl;
+import com.scholar.securitytest.utils.JwtTokenCache;
+import com.scholar.securitytest.utils.StatelessAuthenticator;
+import com.scholar.securitytest.utils.TokenRevocationList;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatelessAuthenticatorTest {
+
+    private final JwtService jwtService = new JwtServiceImpl("sangeng", Duration.ofHours(1), "sg");
+
+    private final JwtTokenCache jwtTokenCache = new JwtTokenCache(100);
+
+    private final TokenRevocationList tokenRevocationList = new TokenRevocationList(true, Duration.ofHours(1), 100);
+
+    private final StatelessAuthenticator statelessAuthenticator = new StatelessAuthenticator(true);
+
+    private final MenuMapper menuMapper = Mockito.mock(MenuMapper.class);
+
+    private final RolePermissionServiceImpl rolePermissionService = new RolePermissionServiceImpl();
+
+    public StatelessAuthenticatorTest() {
+        ReflectionTestUtils.setField(jwtTokenCache, "jwtService", jwtService);
+        ReflectionTestUtils.setField(tokenRevocationList, "stringRedisTemplate",
+                Mockito.mock(StringRedisTemplate.class, Mockito.RETURNS_DEEP_STUBS));
+        ReflectionTestUtils.setField(rolePermissionService, "menuMapper", menuMapper);
+        ReflectionTestUtils.setField(statelessAuthenticator, "tokenRevocationList", tokenRevocationList);
+        ReflectionTestUtils.setField(statelessAuthenticator, "rolePermissionService", rolePermissionService);
+        grant(List.of("system:dept:list", "system:test:list"));
+    }
+
+    /**
+     * 角色1拥有指定的权限，菜单ID从 2001 开始依次分配
+     */
+    private void grant(List<String> permissions) {
+        List<RolePermission> rows = new ArrayList<>();
+        for (int i = 0; i < permissions.size(); i++) {
+            RolePermission row = new RolePermission();
+            row.setRoleId(1L);
+            row.setMenuId(2001L + i);
+            row.setPerms(permissions.get(i));
+            rows.add(row);
+        }
+        Mockito.when(menuMapper.selectRolePermissions()).thenReturn(rows);
+        rolePermissionService.rebuild();
+    }
+
+    private String login(long userId) {
+        User user = new User();
+        user.setId(userId);
+        user.setUserName("user" + userId);
+        LoginUser loginUser = new LoginUser(user, List.of("system:dept:list", "system:test:list"));
+        return jwtService.createJWT(String.valueOf(userId), statelessAuthenticator.claimsOf(loginUser));
+    }
+
+    @Test
+    public void testAuthenticateFromClaims() throws Exception {
+        VerifiedToken verified = jwtTokenCache.verify(login(1));
+        assertEquals(rolePermissionService.version(), verified.getPermVersion());
+
+        LoginUser loginUser = statelessAuthenticator.authenticate(verified);
+        assertEquals(1L, loginUser.getUser().getId());
+        assertEquals("user1", loginUser.getUsername());
+        assertTrue(loginUser.hasPermission("system:test:list"));
+
+        // 普通 token 中没有权限声明，仍按会话认证
+        assertNull(statelessAuthenticator.authenticate(jwtTokenCache.verify(jwtService.createJWT("1"))));
+
+        // 角色权限变化后版本落后，改为按会话认证
+        grant(List.of("system:dept:list", "system:test:list", "system:user:list"));
+        assertNull(statelessAuthenticator.authenticate(verified));
+    }
+
+    @Test
+    public void testRevokedTokensAreRejected() throws Exception {
+        VerifiedToken first = jwtTokenCache.verify(login(2));
+        VerifiedToken second = jwtTokenCache.verify(login(2));
+
+        // 按 jti 吊销只影响当前 token
+        tokenRevocationList.revoke(first);
+        assertTrue(statelessAuthenticator.isRevoked(first));
+        assertFalse(statelessAuthenticator.isRevoked(second));
+
+        // 按用户吊销影响此前签发的全部 token
+        tokenRevocationList.revokeSubjects(List.of("2"));
+        assertTrue(statelessAuthenticator.isRevoked(second));
+        assertFalse(statelessAuthenticator.isRevoked(jwtTokenCache.verify(login(3))));
+    }
+}
@@ -0,0 +1,50 @@
+import com.scholar.securitytest.domain.VerifiedToken;
+import com.scholar.securitytest.utils.TokenRevocationList;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenRevocationListTest {
+
+    @Test
+    public void testPollAppliesRecordsFromOtherNodes() {
+        StringRedisTemplate stringRedisTemplate = Mockito.mock(StringRedisTemplate.class);
+        StringRedisConnection connection = Mockito.mock(StringRedisConnection.class);
+        Mockito.when(stringRedisTemplate.execute(ArgumentMatchers.<RedisCallback<Object>>any()))
+                .thenAnswer(invocation -> invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection));
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(true, Duration.ofHours(1), 100);
+        ReflectionTestUtils.setField(tokenRevocationList, "stringRedisTemplate", stringRedisTemplate);
+
+        long now = System.currentTimeMillis();
+        StringRecord byToken = StreamRecords.string(Map.of("jti", "jti-1", "exp", String.valueOf(now + 60_000)))
+                .withStreamKey(TokenRevocationList.STREAM_KEY).withId(RecordId.of("1-0"));
+        StringRecord bySubject = StreamRecords.string(Map.of("sub", "7", "before", String.valueOf(now)))
+                .withStreamKey(TokenRevocationList.STREAM_KEY).withId(RecordId.of("2-0"));
+        Mockito.when(connection.xReadAsString(ArgumentMatchers.any(StreamReadOptions.class),
+                        ArgumentMatchers.<StreamOffset<String>>any()))
+                .thenReturn(List.of(byToken, bySubject));
+
+        tokenRevocationList.poll();
+
+        assertTrue(tokenRevocationList.isRevoked(new VerifiedToken("1", now + 60_000, "jti-1", now, null, null, null)));
+        assertTrue(tokenRevocationList.isRevoked(new VerifiedToken("7", now + 60_000, "jti-2", now - 1000, null, null, null)));
+        assertFalse(tokenRevocationList.isRevoked(new VerifiedToken("7", now + 60_000, "jti-3", now + 1000, null, null, null)));
+        assertFalse(tokenRevocationList.isRevoked(new VerifiedToken("1", now + 60_000, "jti-4", now, null, null, null)));
+    }
+}